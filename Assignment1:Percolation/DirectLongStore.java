@@ -0,0 +1,235 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 LongStore.java DirectLongStore.java
+ *  Execution:    No main method.
+ *
+ *  Long-indexed array of longs split into pages off the heap, optionally
+ *  backed by a file.
+ *
+ ******************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code DirectLongStore} class is a {@code LongStore} that keeps its
+ * elements outside the Java heap, in pages of {@code 2^24} {@code long}s
+ * (128MB). The elements take no heap space and are never copied by the
+ * garbage collector, so the heap can stay small however large the store is.
+ * <p>
+ * Each page is either a direct {@code ByteBuffer} or, when the store is
+ * created with a file, a region of that file mapped into memory with
+ * {@code FileChannel.map}. A file-backed store can be larger than the memory
+ * of the machine: the operating system pages the regions in and out as they
+ * are used. Pages are created the first time an element in them is set to a
+ * value other than 0; in a file, the regions never written stay holes on
+ * file systems that support sparse files.
+ * <p>
+ * Direct buffers are capped by the JVM option
+ * {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size,
+ * so a store in direct buffers larger than the heap needs the option, e.g.
+ * {@code -XX:MaxDirectMemorySize=16g}. File-backed stores are not capped and
+ * are the better choice for stores close to or larger than the memory of the
+ * machine.
+ */
+public class DirectLongStore implements LongStore {
+    private static final int PAGE_SHIFT = 24;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+    private final long size;
+    private final Path file;
+    private final LongBuffer[] pages;
+    
+    /**
+     * Create a store of {@code size} elements, all 0, in direct buffers.
+     * 
+     * @param size The # of elements.
+     * @throws IllegalArgumentException if {@code size < 0} or there would be
+     *         more pages than fit in an array.
+     */
+    public DirectLongStore(long size) {
+        this(size, null);
+    }
+    
+    /**
+     * Create a store of {@code size} elements, all 0, in the file
+     * {@code filename}, which is created or truncated.
+     * 
+     * @param size The # of elements.
+     * @param filename The name of the file to map, or {@code null} to use
+     *        direct buffers.
+     * @throws IllegalArgumentException if {@code size < 0}, there would be
+     *         more pages than fit in an array, or the file can't be created.
+     */
+    public DirectLongStore(long size, String filename) {
+        long numPages;
+        FileChannel channel;
+        
+        numPages = (size + PAGE_MASK) >>> PAGE_SHIFT;
+        if (size < 0 || numPages > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Size must be between 0 and "
+                                               + ((long) (Integer.MAX_VALUE - 8) << PAGE_SHIFT)
+                                               + ". You entered " + size + ".");
+        }
+        this.size = size;
+        pages = new LongBuffer[(int) numPages];
+        if (filename == null) {
+            file = null;
+        } else {
+            file = Paths.get(filename);
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                           StandardOpenOption.TRUNCATE_EXISTING);
+                channel.close();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not create " + filename + ".", e);
+            }
+        }
+    }
+    
+    /**
+     * Return a factory of stores in direct buffers, or mapped from the file
+     * {@code filename} when it is not {@code null}.
+     * 
+     * @param filename The name of the file to map, or {@code null}.
+     * 
+     * @return A factory for a {@code LatticePercolation}.
+     */
+    public static LongStore.Factory factory(final String filename) {
+        return new LongStore.Factory() {
+            public LongStore create(long size) {
+                return new DirectLongStore(size, filename);
+            }
+        };
+    }
+    
+    /**
+     * Create the page {@code pageIndex}, all 0.
+     * 
+     * @param pageIndex The index of the page.
+     * 
+     * @return The new page.
+     * @throws OutOfMemoryError if a direct buffer can't be allocated.
+     * @throws IllegalStateException if the page of a file-backed store can't
+     *         be mapped.
+     */
+    private LongBuffer createPage(int pageIndex) {
+        long start, bytes;
+        ByteBuffer buffer;
+        FileChannel channel;
+        
+        // The last page only needs to hold the elements up to size.
+        start = (long) pageIndex << PAGE_SHIFT;
+        bytes = 8 * Math.min(PAGE_SIZE, size - start);
+        if (file == null) {
+            try {
+                buffer = ByteBuffer.allocateDirect((int) bytes);
+            } catch (OutOfMemoryError e) {
+                throw (OutOfMemoryError) new OutOfMemoryError("Could not allocate page " + pageIndex
+                                                              + " (" + bytes + " bytes) of direct "
+                                                              + "memory. Raise "
+                                                              + "-XX:MaxDirectMemorySize or use a "
+                                                              + "file-backed store.").initCause(e);
+            }
+        } else {
+            try {
+                // The mapping stays valid after the channel is closed, so no
+                // file handle is held between pages.
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 8 * start, bytes);
+                } finally {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map page " + pageIndex + " of "
+                                                + file + ".", e);
+            }
+        }
+        return buffer.order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+    
+    /**
+     * The # of elements.
+     * 
+     * @return The # of elements in the store.
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Return the element at {@code index}, 0 if its page isn't created.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * 
+     * @return The element.
+     */
+    public long get(long index) {
+        LongBuffer page;
+        
+        page = pages[(int) (index >>> PAGE_SHIFT)];
+        if (page == null) {
+            return 0;
+        }
+        return page.get((int) (index & PAGE_MASK));
+    }
+    
+    /**
+     * Replace the element at {@code index}, creating its page if needed.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * @param value The new value of the element.
+     * @throws OutOfMemoryError if the page of a store in direct buffers can't
+     *         be allocated within {@code -XX:MaxDirectMemorySize}.
+     * @throws IllegalStateException if the page of a file-backed store can't
+     *         be mapped.
+     */
+    public void set(long index, long value) {
+        LongBuffer page;
+        int pageIndex;
+        
+        pageIndex = (int) (index >>> PAGE_SHIFT);
+        page = pages[pageIndex];
+        if (page == null) {
+            if (value == 0) {
+                return;
+            }
+            page = createPage(pageIndex);
+            pages[pageIndex] = page;
+        }
+        page.put((int) (index & PAGE_MASK), value);
+    }
+    
+    /**
+     * Set all the elements back to 0. The direct buffers are dropped, so that
+     * their memory is released when they are collected; the regions of a file
+     * are filled with 0s, since dropping them wouldn't clear the file.
+     */
+    public void clear() {
+        long[] zeros;
+        LongBuffer page;
+        
+        zeros = null;
+        for (int i = 0; i < pages.length; i++) {
+            page = pages[i];
+            if (page == null || file == null) {
+                pages[i] = null;
+                continue;
+            }
+            if (zeros == null) {
+                zeros = new long[8192];
+            }
+            page.clear();
+            while (page.hasRemaining()) {
+                page.put(zeros, 0, Math.min(zeros.length, page.remaining()));
+            }
+            page.clear();
+        }
+    }
+}
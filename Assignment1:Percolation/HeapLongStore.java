@@ -0,0 +1,104 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 LongStore.java HeapLongStore.java
+ *  Execution:    No main method.
+ *
+ *  Long-indexed array of longs split into pages on the heap.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code HeapLongStore} class is a {@code LongStore} that keeps its
+ * elements in pages of {@code 2^20} {@code long}s (8MB) on the heap. The page
+ * of an element is found with a shift and its position in the page with a
+ * mask.
+ * <p>
+ * Pages are only allocated the first time an element in them is set to a
+ * value other than 0, so a store whose elements are mostly 0, such as a
+ * lattice with few open sites, takes little memory.
+ */
+public class HeapLongStore implements LongStore {
+    private static final int PAGE_SHIFT = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+    private final long size;
+    private final long[][] pages;
+    
+    /**
+     * Create a store of {@code size} elements, all 0.
+     * 
+     * @param size The # of elements.
+     * @throws IllegalArgumentException if {@code size < 0} or there would be
+     *         more pages than fit in an array.
+     */
+    public HeapLongStore(long size) {
+        long numPages;
+        
+        numPages = (size + PAGE_MASK) >>> PAGE_SHIFT;
+        if (size < 0 || numPages > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Size must be between 0 and "
+                                               + ((long) (Integer.MAX_VALUE - 8) << PAGE_SHIFT)
+                                               + ". You entered " + size + ".");
+        }
+        this.size = size;
+        pages = new long[(int) numPages][];
+    }
+    
+    /**
+     * The # of elements.
+     * 
+     * @return The # of elements in the store.
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Return the element at {@code index}, 0 if its page isn't allocated.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * 
+     * @return The element.
+     */
+    public long get(long index) {
+        long[] page;
+        
+        page = pages[(int) (index >>> PAGE_SHIFT)];
+        if (page == null) {
+            return 0;
+        }
+        return page[(int) (index & PAGE_MASK)];
+    }
+    
+    /**
+     * Replace the element at {@code index}, allocating its page if needed.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * @param value The new value of the element.
+     */
+    public void set(long index, long value) {
+        long[] page;
+        int pageIndex;
+        
+        pageIndex = (int) (index >>> PAGE_SHIFT);
+        page = pages[pageIndex];
+        if (page == null) {
+            if (value == 0) {
+                return;
+            }
+            // The last page only needs to hold the elements up to size.
+            page = new long[(int) Math.min(PAGE_SIZE, size - ((long) pageIndex << PAGE_SHIFT))];
+            pages[pageIndex] = page;
+        }
+        page[(int) (index & PAGE_MASK)] = value;
+    }
+    
+    /**
+     * Set all the elements back to 0, dropping the pages so that their memory
+     * can be reclaimed.
+     */
+    public void clear() {
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = null;
+        }
+    }
+}
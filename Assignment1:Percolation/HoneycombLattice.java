@@ -0,0 +1,74 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Lattice.java HoneycombLattice.java
+ *  Execution:    No main method.
+ *
+ *  Honeycomb (hexagonal) lattice, each site connected to 3 others.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code HoneycombLattice} class is a 2-dimensional {@code Lattice} where
+ * each site has 3 neighbors, the sites of a hexagonal tiling. It is laid out
+ * on a grid of rows and columns as a brick wall: site {@code (row, col)} is
+ * connected to its left and right neighbors, and to the site below it if
+ * {@code row + col} is even or to the site above it if it is odd. Its site
+ * percolation threshold is about 0.697.
+ */
+public class HoneycombLattice extends Lattice {
+    private final long rows;
+    private final long cols;
+    
+    /**
+     * Initialize a lattice of {@code rows}-by-{@code cols} sites.
+     * 
+     * @param rows The # of rows, from the top to the bottom.
+     * @param cols The # of columns.
+     * @throws IllegalArgumentException if {@code rows ≤ 0}, {@code cols ≤ 0}
+     *         or there are too many sites.
+     */
+    public HoneycombLattice(long rows, long cols) {
+        super(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
+    
+    /**
+     * The most neighbors a site can have.
+     * 
+     * @return 3.
+     */
+    public int maxNeighbors() {
+        return 3;
+    }
+    
+    /**
+     * Write the 3 sites connected to {@code site} into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    public int neighbors(long site, long[] out) {
+        long row, col;
+        int count;
+        
+        row = site / cols;
+        col = site - row * cols;
+        count = 0;
+        if (col > 0) {
+            out[count++] = site - 1;
+        }
+        if (col < cols - 1) {
+            out[count++] = site + 1;
+        }
+        if (((row + col) & 1) == 0) {
+            if (row < rows - 1) {
+                out[count++] = site + cols;
+            }
+        } else if (row > 0) {
+            out[count++] = site - cols;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,216 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Lattice.java
+ *  Execution:    No main method.
+ *
+ *  Shape and neighborhood of the sites of a LatticePercolation.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code Lattice} class describes a box-shaped lattice of sites for
+ * {@code LatticePercolation}: its extent along each axis and which sites are
+ * neighbors of each other. Subclasses define the neighborhood.
+ * <p>
+ * Sites are numbered from 0 in row-major order, the last axis varying
+ * fastest; the first axis runs from the top to the bottom of the lattice.
+ * {@link #neighbors(long, long[])} writes the neighbors of a site into an
+ * array supplied by the caller, so iterating over them allocates nothing and
+ * costs one call, with the loop over the offsets unrolled in the subclass.
+ * <p>
+ * The sites passed in are not validated; {@code LatticePercolation} checks
+ * them before calling in.
+ * 
+ * @see SquareLattice
+ * @see MooreLattice
+ * @see TriangularLattice
+ * @see HoneycombLattice
+ */
+public abstract class Lattice {
+    /**
+     * The # of sites along each axis, for the neighbors of the subclasses.
+     * Subclasses must not modify it.
+     */
+    protected final long[] extents;
+    
+    /**
+     * The distance between the numbers of two sites next to each other along
+     * each axis. Subclasses must not modify it.
+     */
+    protected final long[] strides;
+    private final long sites;
+    
+    /**
+     * Initialize a lattice with the given extent along each axis.
+     * 
+     * @param extents The # of sites along each axis.
+     * @throws IllegalArgumentException if there are no extents, an extent is
+     *         not positive, or the # of sites is larger than
+     *         {@code Long.MAX_VALUE / 4}.
+     */
+    protected Lattice(long... extents) {
+        long product;
+        
+        if (extents.length == 0) {
+            throw new IllegalArgumentException("Must enter at least one extent.");
+        }
+        product = 1;
+        for (int axis = 0; axis < extents.length; axis++) {
+            if (extents[axis] <= 0) {
+                throw new IllegalArgumentException("Extents must be greater than 0. You entered "
+                                                   + extents[axis] + " for axis " + axis + ".");
+            }
+            // Leave room for 2 status bits next to the size of a cluster.
+            if (product > (Long.MAX_VALUE >>> 2) / extents[axis]) {
+                throw new IllegalArgumentException("The lattice has too many sites.");
+            }
+            product *= extents[axis];
+        }
+        this.extents = extents.clone();
+        strides = new long[extents.length];
+        strides[extents.length - 1] = 1;
+        for (int axis = extents.length - 2; axis >= 0; axis--) {
+            strides[axis] = strides[axis + 1] * extents[axis + 1];
+        }
+        sites = product;
+    }
+    
+    /**
+     * The # of dimensions of the lattice.
+     * 
+     * @return The # of axes.
+     */
+    public int dimensions() {
+        return extents.length;
+    }
+    
+    /**
+     * The # of sites along an axis.
+     * 
+     * @param axis The axis, from 0.
+     * 
+     * @return The extent of the lattice along {@code axis}.
+     * @throws IndexOutOfBoundsException if {@code axis} is not in
+     *         {@code [0, dimensions())}.
+     */
+    public long extent(int axis) {
+        return extents[axis];
+    }
+    
+    /**
+     * The distance between the numbers of two sites next to each other along
+     * an axis.
+     * 
+     * @param axis The axis, from 0.
+     * 
+     * @return The product of the extents of the axes after {@code axis}.
+     * @throws IndexOutOfBoundsException if {@code axis} is not in
+     *         {@code [0, dimensions())}.
+     */
+    public long stride(int axis) {
+        return strides[axis];
+    }
+    
+    /**
+     * The # of sites in the lattice.
+     * 
+     * @return The product of the extents.
+     */
+    public long sites() {
+        return sites;
+    }
+    
+    /**
+     * Return the number of a site from its coordinates.
+     * 
+     * @param coordinates The coordinate of the site along each axis, from 1.
+     * 
+     * @return The number of the site, in {@code [0, sites())}.
+     * @throws IndexOutOfBoundsException if there isn't one coordinate per axis
+     *         or a coordinate is out of bounds.
+     */
+    public long site(long... coordinates) {
+        long site;
+        
+        if (coordinates.length != extents.length) {
+            throw new IndexOutOfBoundsException("Must enter " + extents.length
+                                                + " coordinates. You entered "
+                                                + coordinates.length + ".");
+        }
+        site = 0;
+        for (int axis = 0; axis < extents.length; axis++) {
+            if (coordinates[axis] <= 0 || coordinates[axis] > extents[axis]) {
+                throw new IndexOutOfBoundsException("coordinate " + coordinates[axis]
+                                                    + " of axis " + axis + " out of bounds (1 - "
+                                                    + extents[axis] + ").");
+            }
+            site += (coordinates[axis] - 1) * strides[axis];
+        }
+        
+        return site;
+    }
+    
+    /**
+     * Check if a site is at the top of the lattice, the first position along
+     * the first axis.
+     * 
+     * @param site The number of the site.
+     * 
+     * @return {@code True} if the site is at the top, {@code false} otherwise.
+     */
+    public boolean isTop(long site) {
+        return site < strides[0];
+    }
+    
+    /**
+     * Check if a site is at the bottom of the lattice, the last position along
+     * the first axis.
+     * 
+     * @param site The number of the site.
+     * 
+     * @return {@code True} if the site is at the bottom, {@code false} otherwise.
+     */
+    public boolean isBottom(long site) {
+        return site >= sites - strides[0];
+    }
+    
+    /**
+     * The most neighbors a site can have, the length {@code neighbors} needs.
+     * 
+     * @return The # of neighbors of a site away from the borders.
+     */
+    public abstract int maxNeighbors();
+    
+    /**
+     * Write the neighbors of a site into {@code out}, in no particular order.
+     * Sites on the borders of the lattice have fewer neighbors.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into, of length at least
+     *        {@link #maxNeighbors()}.
+     * 
+     * @return The # of neighbors written.
+     */
+    public abstract int neighbors(long site, long[] out);
+    
+    /**
+     * Check if two sites are neighbors.
+     * 
+     * @param p One site.
+     * @param q The other site.
+     * @param scratch An array of length at least {@link #maxNeighbors()}.
+     * 
+     * @return {@code True} if {@code q} is a neighbor of {@code p},
+     *         {@code false} otherwise.
+     */
+    public boolean isNeighbor(long p, long q, long[] scratch) {
+        int count;
+        
+        count = neighbors(p, scratch);
+        for (int i = 0; i < count; i++) {
+            if (scratch[i] == q) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
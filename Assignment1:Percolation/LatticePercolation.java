@@ -0,0 +1,526 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 LongStore.java HeapLongStore.java
+ *                javac-algs4 DirectLongStore.java Lattice.java
+ *                javac-algs4 SquareLattice.java MooreLattice.java
+ *                javac-algs4 TriangularLattice.java HoneycombLattice.java
+ *                javac-algs4 LatticePercolation.java
+ *  Execution:    java-algs4 LatticePercolation 200 50
+ *                java-algs4 LatticePercolation 100 100 100
+ *                java-algs4 -XX:MaxDirectMemorySize=8g LatticePercolation -direct 1000 1000 1000
+ *                java-algs4 LatticePercolation -file lattice.bin 100000 100000
+ *                java-algs4 LatticePercolation -triangular 1000 1000
+ *
+ *  Percolation data type on a lattice of any shape and # of dimensions.
+ *
+ ******************************************************************************/
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code LatticePercolation} class represents a <em>data type</em> for
+ * modelling percolation on a box-shaped lattice with any # of dimensions and
+ * any extent along each of them, such as a W-by-H strip or an L-by-L-by-L
+ * cube. Which sites are neighbors is defined by a {@code Lattice}: by default
+ * a {@code SquareLattice}, where each site is connected to the two sites next
+ * to it along each axis, or a {@code MooreLattice}, {@code TriangularLattice}
+ * or {@code HoneycombLattice}. The lattice writes the neighbors of a site into
+ * an array kept by this class, so iterating over them allocates nothing.
+ * <p>
+ * In the {@link #SITES} model, sites are opened, and an open site is connected
+ * to all its open neighbors. In the {@link #BONDS} model, every site is open,
+ * and the bonds between neighbors are opened with {@link #openBond(long, long)}.
+ * Either way, the system percolates when a cluster spans the first axis,
+ * from the sites with coordinate 1 (the top) to the sites with the largest
+ * coordinate (the bottom), like the rows of {@code Percolation}.
+ * <p>
+ * Sites are numbered from 0 in row-major order, the last axis varying
+ * fastest, and the numbers are {@code long}s so that lattices can have more
+ * than {@code Integer.MAX_VALUE} sites. For a 2-dimensional lattice, site
+ * {@code (row, col)} is {@code (row - 1) * width + (col - 1)}, the same as
+ * {@code Percolation.openAll} takes.
+ * <p>
+ * The whole state of a site is packed in a single {@code long} of a
+ * {@code LongStore}, so the lattice takes 8 bytes per site and no Java array
+ * has to hold all the sites:
+ * <ul>
+ * <li><em>0</em> - The site is blocked.
+ * <li><em>Positive</em> - The site is open and its parent in the union-find
+ *     is the site with that number minus 1.
+ * <li><em>Negative</em> - The site is open and the root of its cluster. The
+ *     complement holds the size of the cluster shifted left by 2 and the
+ *     {@code TOP} and {@code BOTTOM} status bits of the cluster, as in
+ *     {@code PercolationUF}.
+ * </ul>
+ * Opening a site, finding the root of a cluster (with path halving) and
+ * merging two clusters (by size) work as in {@code Percolation}, just on
+ * {@code long} indexes. A site is full if the root of its cluster has the
+ * {@code TOP} bit, so there is no backwash.
+ * <p>
+ * The store is made by a {@code LongStore.Factory} passed to the constructor.
+ * By default it is a {@code HeapLongStore}; a {@code DirectLongStore} keeps the
+ * lattice off the heap, in memory or in a memory-mapped file, for lattices
+ * too large for the heap, such as a 100,000-by-100,000 grid (80GB). Direct
+ * memory is capped by {@code -XX:MaxDirectMemorySize}, which defaults to the
+ * maximum heap size, so lattices larger than that need the option or a file.
+ * 
+ * @see Percolation
+ */
+public class LatticePercolation {
+    /**
+     * Site percolation: sites are opened and connected to their open neighbors.
+     */
+    public static final int SITES = 0;
+    
+    /**
+     * Bond percolation: all sites are open, and bonds between neighbors are
+     * opened.
+     */
+    public static final int BONDS = 1;
+    
+    private static final long TOP = PercolationUF.TOP;
+    private static final long BOTTOM = PercolationUF.BOTTOM;
+    private static final int STATUS_BITS = 2;
+    private final Lattice lattice;
+    private final int model;
+    private final long totSites;
+    private final LongStore sites;
+    // Scratch space for the neighbors of the site being opened.
+    private final long[] neighbors;
+    private long numOpenSites;
+    private boolean percolates;
+    
+    /**
+     * Initialize a square lattice of blocked sites with the given extent along
+     * each axis, stored on the heap.
+     * 
+     * @param extents The # of sites along each axis. The system percolates
+     *        along the first one.
+     * @throws IllegalArgumentException if there are no extents, an extent is
+     *         not positive, or the # of sites doesn't fit in a {@code long}.
+     */
+    public LatticePercolation(long... extents) {
+        this(HeapLongStore::new, new SquareLattice(extents), SITES);
+    }
+    
+    /**
+     * Initialize a square lattice of blocked sites with the given extent along
+     * each axis, stored in a store made by {@code storeFactory}.
+     * 
+     * @param storeFactory The factory of the store of the sites, such as
+     *        {@code HeapLongStore::new} or {@code DirectLongStore.factory(null)}.
+     * @param extents The # of sites along each axis. The system percolates
+     *        along the first one.
+     * @throws IllegalArgumentException if there are no extents, an extent is
+     *         not positive, the # of sites doesn't fit in a {@code long}, or
+     *         the store can't hold them all.
+     */
+    public LatticePercolation(LongStore.Factory storeFactory, long... extents) {
+        this(storeFactory, new SquareLattice(extents), SITES);
+    }
+    
+    /**
+     * Initialize a lattice for site or bond percolation, with all the sites
+     * blocked or all the bonds closed, stored in a store made by
+     * {@code storeFactory}.
+     * 
+     * @param storeFactory The factory of the store of the sites.
+     * @param lattice The shape and neighborhood of the sites.
+     * @param model {@link #SITES} or {@link #BONDS}.
+     * @throws IllegalArgumentException if the model is unknown or the store
+     *         can't hold all the sites.
+     */
+    public LatticePercolation(LongStore.Factory storeFactory, Lattice lattice, int model) {
+        if (model != SITES && model != BONDS) {
+            throw new IllegalArgumentException("Unknown model " + model + ".");
+        }
+        this.lattice = lattice;
+        this.model = model;
+        totSites = lattice.sites();
+        sites = storeFactory.create(totSites);
+        if (sites.size() < totSites) {
+            throw new IllegalArgumentException("The store holds " + sites.size()
+                                               + " elements. The lattice needs "
+                                               + totSites + ".");
+        }
+        neighbors = new long[lattice.maxNeighbors()];
+        numOpenSites = (model == BONDS) ? totSites : 0;
+        // With bonds, the sites of a lattice one site deep are top and bottom at once.
+        percolates = (model == BONDS) && lattice.extent(0) == 1;
+    }
+    
+    /**
+     * The shape and neighborhood of the sites.
+     * 
+     * @return The lattice.
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+    
+    /**
+     * The # of dimensions of the lattice.
+     * 
+     * @return The # of axes.
+     */
+    public int dimensions() {
+        return lattice.dimensions();
+    }
+    
+    /**
+     * The # of sites along an axis.
+     * 
+     * @param axis The axis, from 0.
+     * 
+     * @return The extent of the lattice along {@code axis}.
+     * @throws IndexOutOfBoundsException if {@code axis} is not in
+     *         {@code [0, dimensions())}.
+     */
+    public long extent(int axis) {
+        return lattice.extent(axis);
+    }
+    
+    /**
+     * The # of sites in the lattice.
+     * 
+     * @return The product of the extents.
+     */
+    public long sites() {
+        return totSites;
+    }
+    
+    /**
+     * Return the number of a site from its coordinates.
+     * 
+     * @param coordinates The coordinate of the site along each axis, from 1.
+     * 
+     * @return The number of the site, in {@code [0, sites())}.
+     * @throws IndexOutOfBoundsException if there isn't one coordinate per axis
+     *         or a coordinate is out of bounds.
+     */
+    public long site(long... coordinates) {
+        return lattice.site(coordinates);
+    }
+    
+    /**
+     * Check that a site is in the lattice.
+     * 
+     * @param site The number of the site.
+     * @throws IndexOutOfBoundsException if {@code site} is not in
+     *         {@code [0, sites())}.
+     */
+    private void validate(long site) {
+        if (site < 0 || site >= totSites) {
+            throw new IndexOutOfBoundsException("site " + site + " out of bounds (0 - "
+                                                + (totSites - 1) + ").");
+        }
+    }
+    
+    /**
+     * Make a blocked (or, with bonds, untouched) site the root of a cluster of
+     * its own, with the status bits of its position.
+     * 
+     * @param site The number of the site.
+     */
+    private void activate(long site) {
+        long status;
+        
+        status = 0;
+        if (lattice.isTop(site)) {
+            status |= TOP;
+        }
+        if (lattice.isBottom(site)) {
+            status |= BOTTOM;
+        }
+        sites.set(site, ~((1L << STATUS_BITS) | status));
+    }
+    
+    /**
+     * Return the root of the cluster containing the open site {@code p},
+     * making every other site on the path point to its grandparent.
+     * 
+     * @param p An open site.
+     * 
+     * @return The root of the cluster.
+     */
+    private long find(long p) {
+        long parent, grandParent;
+        
+        parent = sites.get(p) - 1;
+        while (parent >= 0) {
+            grandParent = sites.get(parent) - 1;
+            if (grandParent < 0) {
+                return parent;
+            }
+            sites.set(p, grandParent + 1);
+            p = grandParent;
+            parent = sites.get(p) - 1;
+        }
+        return p;
+    }
+    
+    /**
+     * Merge the cluster with root {@code root} and the cluster containing the
+     * open site {@code q}.
+     * 
+     * @param root The root of a cluster.
+     * @param q An open site.
+     * 
+     * @return The root of the merged cluster.
+     */
+    private long union(long root, long q) {
+        long rootQ, entry, entryQ, merged;
+        
+        rootQ = find(q);
+        if (root == rootQ) {
+            return root;
+        }
+        entry = ~sites.get(root);
+        entryQ = ~sites.get(rootQ);
+        // Adding the entries adds the sizes; the status bits are OR-ed apart.
+        merged = ((entry >>> STATUS_BITS) + (entryQ >>> STATUS_BITS)) << STATUS_BITS
+                 | ((entry | entryQ) & (TOP | BOTTOM));
+        if (entry < entryQ) {
+            sites.set(root, rootQ + 1);
+            sites.set(rootQ, ~merged);
+            return rootQ;
+        } else {
+            sites.set(rootQ, root + 1);
+            sites.set(root, ~merged);
+            return root;
+        }
+    }
+    
+    /**
+     * Open a site and connect it to its open neighbors.
+     * 
+     * @param site The number of the site, as returned by {@link #site(long...)}.
+     * @throws IndexOutOfBoundsException if {@code site} is not in
+     *         {@code [0, sites())}.
+     * @throws UnsupportedOperationException if this is a bond percolation.
+     */
+    public void open(long site) {
+        long root, neighbor;
+        int count;
+        
+        if (model != SITES) {
+            throw new UnsupportedOperationException("All the sites are open in bond "
+                                                    + "percolation. Open bonds instead.");
+        }
+        validate(site);
+        if (sites.get(site) != 0) {
+            return;
+        }
+        numOpenSites++;
+        
+        // A new cluster of one site.
+        activate(site);
+        root = site;
+        count = lattice.neighbors(site, neighbors);
+        for (int i = 0; i < count; i++) {
+            neighbor = neighbors[i];
+            if (sites.get(neighbor) != 0) {
+                root = union(root, neighbor);
+            }
+        }
+        
+        if ((~sites.get(root) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+    
+    /**
+     * Open the bond between two neighboring sites, connecting their clusters.
+     * Opening a bond that is already open changes nothing.
+     * 
+     * @param p One site.
+     * @param q The other site, a neighbor of {@code p}.
+     * @throws IndexOutOfBoundsException if a site is not in {@code [0, sites())}.
+     * @throws IllegalArgumentException if the sites are not neighbors.
+     * @throws UnsupportedOperationException if this is a site percolation.
+     */
+    public void openBond(long p, long q) {
+        long root;
+        
+        if (model != BONDS) {
+            throw new UnsupportedOperationException("Sites are opened, not bonds, in site "
+                                                    + "percolation.");
+        }
+        validate(p);
+        validate(q);
+        if (!lattice.isNeighbor(p, q, neighbors)) {
+            throw new IllegalArgumentException("Sites " + p + " and " + q
+                                               + " are not neighbors.");
+        }
+        // Sites no bond has reached yet are clusters of their own.
+        if (sites.get(p) == 0) {
+            activate(p);
+        }
+        if (sites.get(q) == 0) {
+            activate(q);
+        }
+        root = union(find(p), q);
+        
+        if ((~sites.get(root) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+    
+    /**
+     * Open the sites {@code sites[from]} to {@code sites[to - 1]} in order,
+     * stopping right after the open that makes the system percolate, like
+     * {@code Percolation.openAll}.
+     * 
+     * @param sites The numbers of the sites to open.
+     * @param from The position in {@code sites} of the first site to open.
+     * @param to One past the position in {@code sites} of the last site to open.
+     * 
+     * @return The position in {@code sites} of the site whose open made the
+     *         system percolate, or {@code -1} if no site in the range did.
+     * @throws IndexOutOfBoundsException if the range is not in {@code sites}
+     *         or a site is not in the lattice.
+     */
+    public int openAll(long[] sites, int from, int to) {
+        boolean percolatedBefore;
+        
+        if (from < 0 || to > sites.length || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to
+                                                + ") out of bounds (0 - "
+                                                + sites.length + ").");
+        }
+        percolatedBefore = percolates;
+        for (int i = from; i < to; i++) {
+            open(sites[i]);
+            if (percolates && !percolatedBefore) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Check if a site is open.
+     * 
+     * @param site The number of the site.
+     * 
+     * @return {@code True} if the site is open (always with bonds),
+     *         {@code false} otherwise.
+     * @throws IndexOutOfBoundsException if {@code site} is not in
+     *         {@code [0, sites())}.
+     */
+    public boolean isOpen(long site) {
+        validate(site);
+        return model == BONDS || sites.get(site) != 0;
+    }
+    
+    /**
+     * Check if a site is open and connected to a site at the top.
+     * 
+     * @param site The number of the site.
+     * 
+     * @return {@code True} if the site is full, {@code false} otherwise.
+     * @throws IndexOutOfBoundsException if {@code site} is not in
+     *         {@code [0, sites())}.
+     */
+    public boolean isFull(long site) {
+        validate(site);
+        if (sites.get(site) == 0) {
+            // With bonds, a site no bond has reached is full if it's at the top.
+            return model == BONDS && lattice.isTop(site);
+        }
+        return (~sites.get(find(site)) & TOP) != 0;
+    }
+    
+    /**
+     * The # of open sites in the lattice.
+     * 
+     * @return The # of open sites.
+     */
+    public long numberOfOpenSites() {
+        return numOpenSites;
+    }
+    
+    /**
+     * Check if a cluster of open sites connects the top to the bottom.
+     * 
+     * @return {@code True} if the system percolates, {@code false} otherwise.
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+    
+    /**
+     * Block all the sites, or close all the bonds, again.
+     */
+    public void reset() {
+        sites.clear();
+        numOpenSites = (model == BONDS) ? totSites : 0;
+        percolates = (model == BONDS) && lattice.extent(0) == 1;
+    }
+    
+    public static void main(String[] args) {
+        LatticePercolation percolation;
+        LongStore.Factory storeFactory;
+        Lattice lattice;
+        String shape;
+        SplittableRandom random;
+        long[] extents;
+        long site;
+        int first;
+        
+        storeFactory = HeapLongStore::new;
+        shape = "-square";
+        first = 0;
+        while (first < args.length && args[first].startsWith("-")) {
+            if (args[first].equals("-direct")) {
+                storeFactory = DirectLongStore.factory(null);
+            } else if (args[first].equals("-file") && first + 1 < args.length) {
+                storeFactory = DirectLongStore.factory(args[++first]);
+            } else {
+                shape = args[first];
+            }
+            first++;
+        }
+        if (args.length == first) {
+            throw new IllegalArgumentException("You must run this program with the extent " +
+                                               "of the lattice along each axis as command-line " +
+                                               "arguments, e.g. 100 100 100 for a cube. The " +
+                                               "extents can be preceded by -direct to keep the " +
+                                               "lattice off the heap (raise the limit with " +
+                                               "-XX:MaxDirectMemorySize), or by -file and the " +
+                                               "name of a file to keep it in, for lattices larger " +
+                                               "than memory, and by -moore, -triangular " +
+                                               "or -honeycomb for a 2-dimensional lattice of that " +
+                                               "shape.");
+        }
+        extents = new long[args.length - first];
+        for (int i = first; i < args.length; i++) {
+            extents[i - first] = Long.parseLong(args[i]);
+        }
+        if (shape.equals("-square")) {
+            lattice = new SquareLattice(extents);
+        } else if (extents.length != 2) {
+            throw new IllegalArgumentException(shape + " lattices have 2 dimensions.");
+        } else if (shape.equals("-moore")) {
+            lattice = new MooreLattice(extents[0], extents[1]);
+        } else if (shape.equals("-triangular")) {
+            lattice = new TriangularLattice(extents[0], extents[1]);
+        } else if (shape.equals("-honeycomb")) {
+            lattice = new HoneycombLattice(extents[0], extents[1]);
+        } else {
+            throw new IllegalArgumentException("Unknown option " + shape + ".");
+        }
+        percolation = new LatticePercolation(storeFactory, lattice, SITES);
+        
+        // Open random blocked sites until the system percolates.
+        random = new SplittableRandom();
+        while (!percolation.percolates()) {
+            site = random.nextLong(percolation.sites());
+            percolation.open(site);
+        }
+        System.out.println("sites      = " + percolation.sites());
+        System.out.println("open sites = " + percolation.numberOfOpenSites());
+        System.out.println("threshold  = "
+                           + (double) percolation.numberOfOpenSites() / percolation.sites());
+    }
+}
@@ -0,0 +1,231 @@
+/******************************************************************************
+ * Run: Open LatticePercolation.java and LatticePercolationTest.java in DrJava
+ *      and click Test.
+ *
+ *  Unit tests for lattice percolation data type.
+ * 
+ ******************************************************************************/
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the LatticePercolation class.
+ */
+public class LatticePercolationTest extends TestCase {
+    
+    /**
+     * Test the constructor and {@code site} with illegal args.
+     */
+    public void testLatticePercolationWithBadArg() {
+        LatticePercolation percolation;
+        
+        try {
+            percolation = new LatticePercolation(3, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Extents must be greater than 0. You entered 0 for axis 1.", e.getMessage());
+        }
+        try {
+            percolation = new LatticePercolation(1L << 31, 1L << 31, 1L << 31);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("The lattice has too many sites.", e.getMessage());
+        }
+        percolation = new LatticePercolation(2, 3);
+        try {
+            percolation.site(3, 1);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("coordinate 3 of axis 0 out of bounds (1 - 2).", e.getMessage());
+        }
+        try {
+            percolation.open(6);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("site 6 out of bounds (0 - 5).", e.getMessage());
+        }
+    }
+    
+    /**
+     * Open the same random sites on a square lattice and on a
+     * {@code Percolation} grid, and verify that they always agree.
+     */
+    public void testLatticePercolationSameAsPercolation() {
+        LatticePercolation lattice;
+        Percolation percolation;
+        SplittableRandom random;
+        int n, row, col;
+        
+        random = new SplittableRandom(700);
+        for (int trial = 0; trial < 20; trial++) {
+            n = 1 + random.nextInt(8);
+            lattice = new LatticePercolation(n, n);
+            percolation = new Percolation(n);
+            for (int k = 0; k < n * n; k++) {
+                row = 1 + random.nextInt(n);
+                col = 1 + random.nextInt(n);
+                lattice.open(lattice.site(row, col));
+                percolation.open(row, col);
+                assertEquals(percolation.percolates(), lattice.percolates());
+                assertEquals(percolation.numberOfOpenSites(), lattice.numberOfOpenSites());
+                for (int i = 1; i <= n; i++) {
+                    for (int j = 1; j <= n; j++) {
+                        assertEquals(percolation.isOpen(i, j), lattice.isOpen(lattice.site(i, j)));
+                        assertEquals(percolation.isFull(i, j), lattice.isFull(lattice.site(i, j)));
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Open the same random sites on lattices stored on the heap, in direct
+     * buffers and in a file, and verify that they always agree, also after
+     * a reset.
+     */
+    public void testLatticePercolationStores() throws IOException {
+        LatticePercolation heap, direct, mapped;
+        SplittableRandom random;
+        File file;
+        long site;
+        
+        file = File.createTempFile("lattice", ".bin");
+        try {
+            heap = new LatticePercolation(HeapLongStore::new, 6, 7, 8);
+            direct = new LatticePercolation(DirectLongStore.factory(null), 6, 7, 8);
+            mapped = new LatticePercolation(DirectLongStore.factory(file.getPath()), 6, 7, 8);
+            random = new SplittableRandom(700);
+            for (int round = 0; round < 2; round++) {
+                while (!heap.percolates()) {
+                    site = random.nextLong(heap.sites());
+                    heap.open(site);
+                    direct.open(site);
+                    mapped.open(site);
+                    assertEquals(heap.percolates(), direct.percolates());
+                    assertEquals(heap.percolates(), mapped.percolates());
+                    assertEquals(heap.isFull(site), direct.isFull(site));
+                    assertEquals(heap.isFull(site), mapped.isFull(site));
+                }
+                assertEquals(heap.numberOfOpenSites(), direct.numberOfOpenSites());
+                assertEquals(heap.numberOfOpenSites(), mapped.numberOfOpenSites());
+                heap.reset();
+                direct.reset();
+                mapped.reset();
+                for (site = 0; site < heap.sites(); site++) {
+                    assertFalse(direct.isOpen(site));
+                    assertFalse(mapped.isOpen(site));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Percolate along a diagonal, which connects on a Moore lattice but not on
+     * a square one.
+     */
+    public void testLatticePercolationMoore() {
+        LatticePercolation square, moore;
+        
+        square = new LatticePercolation(3, 3);
+        moore = new LatticePercolation(HeapLongStore::new, new MooreLattice(3, 3),
+                                       LatticePercolation.SITES);
+        for (long i = 1; i <= 3; i++) {
+            square.open(square.site(i, i));
+            moore.open(moore.site(i, i));
+        }
+        assertFalse(square.percolates());
+        assertTrue(moore.percolates());
+        try {
+            moore.openBond(0, 1);
+            fail();
+        } catch (final UnsupportedOperationException e) {
+            assertEquals("Sites are opened, not bonds, in site percolation.", e.getMessage());
+        }
+    }
+    
+    /**
+     * Open bonds on a 3-by-3 square lattice and verify that the system
+     * percolates once they link the top row to the bottom row.
+     */
+    public void testLatticePercolationBonds() {
+        LatticePercolation percolation;
+        
+        percolation = new LatticePercolation(HeapLongStore::new, new SquareLattice(3, 3),
+                                             LatticePercolation.BONDS);
+        assertTrue(percolation.isOpen(4));
+        assertTrue(percolation.isFull(2));
+        assertFalse(percolation.isFull(4));
+        percolation.openBond(1, 4);
+        percolation.openBond(4, 4 + 1);
+        percolation.openBond(1, 4);
+        assertTrue(percolation.isFull(5));
+        assertFalse(percolation.percolates());
+        percolation.openBond(8, 5);
+        assertTrue(percolation.percolates());
+        assertFalse(percolation.isFull(6));
+        try {
+            percolation.openBond(0, 4);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Sites 0 and 4 are not neighbors.", e.getMessage());
+        }
+        try {
+            percolation.open(0);
+            fail();
+        } catch (final UnsupportedOperationException e) {
+            assertEquals("All the sites are open in bond percolation. Open bonds instead.",
+                         e.getMessage());
+        }
+        percolation.reset();
+        assertFalse(percolation.percolates());
+        assertFalse(percolation.isFull(5));
+    }
+    
+    /**
+     * Percolate through a 5-by-2 strip, which needs a site open in every row.
+     */
+    public void testLatticePercolationStrip() {
+        LatticePercolation percolation;
+        long[] sites;
+        
+        percolation = new LatticePercolation(5, 2);
+        sites = new long[] {percolation.site(1, 1), percolation.site(2, 1), percolation.site(3, 2),
+                            percolation.site(4, 2), percolation.site(3, 1), percolation.site(5, 2),
+                            percolation.site(5, 1)};
+        assertEquals(5, percolation.openAll(sites, 0, sites.length));
+        assertTrue(percolation.isFull(percolation.site(5, 2)));
+        assertFalse(percolation.isOpen(percolation.site(5, 1)));
+    }
+    
+    /**
+     * Percolate through a 3-by-3-by-3 cube along a bent path, and verify that
+     * a site only connected to the bottom isn't full.
+     */
+    public void testLatticePercolationCube() {
+        LatticePercolation percolation;
+        
+        percolation = new LatticePercolation(3, 3, 3);
+        assertEquals(3, percolation.dimensions());
+        assertEquals(27, percolation.sites());
+        percolation.open(percolation.site(3, 3, 3));
+        percolation.open(percolation.site(1, 1, 1));
+        percolation.open(percolation.site(2, 1, 1));
+        percolation.open(percolation.site(2, 1, 2));
+        percolation.open(percolation.site(2, 2, 2));
+        assertFalse(percolation.percolates());
+        assertFalse(percolation.isFull(percolation.site(3, 3, 3)));
+        assertTrue(percolation.isFull(percolation.site(2, 2, 2)));
+        percolation.open(percolation.site(3, 2, 2));
+        assertTrue(percolation.percolates());
+        assertFalse(percolation.isFull(percolation.site(3, 3, 3)));
+        percolation.reset();
+        assertFalse(percolation.percolates());
+        assertEquals(0, percolation.numberOfOpenSites());
+        assertFalse(percolation.isOpen(percolation.site(2, 2, 2)));
+    }
+}
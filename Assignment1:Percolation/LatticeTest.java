@@ -0,0 +1,104 @@
+/******************************************************************************
+ * Run: Open the Lattice classes and LatticeTest.java in DrJava and click Test.
+ *
+ *  Unit tests for the neighborhoods of the lattices.
+ * 
+ ******************************************************************************/
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the Lattice subclasses.
+ */
+public class LatticeTest extends TestCase {
+    
+    /**
+     * Return the sorted neighbors of a site.
+     * 
+     * @param lattice The lattice.
+     * @param site The number of the site.
+     * 
+     * @return The neighbors of {@code site}, in increasing order.
+     */
+    private static long[] neighbors(Lattice lattice, long site) {
+        long[] out;
+        
+        out = new long[lattice.maxNeighbors()];
+        out = Arrays.copyOf(out, lattice.neighbors(site, out));
+        Arrays.sort(out);
+        return out;
+    }
+    
+    /**
+     * Verify the neighbors of a corner, an edge and an inner site of a
+     * 3-by-4 grid for each 2-dimensional lattice. The sites are numbered
+     * <pre>
+     *  0  1  2  3
+     *  4  5  6  7
+     *  8  9 10 11
+     * </pre>
+     */
+    public void testLatticeNeighbors() {
+        Lattice lattice;
+        
+        lattice = new SquareLattice(3, 4);
+        assertTrue(Arrays.equals(new long[] {1, 4}, neighbors(lattice, 0)));
+        assertTrue(Arrays.equals(new long[] {1, 4, 6, 9}, neighbors(lattice, 5)));
+        
+        lattice = new MooreLattice(3, 4);
+        assertTrue(Arrays.equals(new long[] {1, 4, 5}, neighbors(lattice, 0)));
+        assertTrue(Arrays.equals(new long[] {0, 1, 2, 4, 6, 8, 9, 10}, neighbors(lattice, 5)));
+        assertTrue(Arrays.equals(new long[] {2, 3, 6, 10, 11}, neighbors(lattice, 7)));
+        
+        lattice = new TriangularLattice(3, 4);
+        assertTrue(Arrays.equals(new long[] {1, 4}, neighbors(lattice, 0)));
+        assertTrue(Arrays.equals(new long[] {1, 2, 4, 6, 8, 9}, neighbors(lattice, 5)));
+        assertTrue(Arrays.equals(new long[] {2, 6, 7}, neighbors(lattice, 3)));
+        
+        lattice = new HoneycombLattice(3, 4);
+        assertTrue(Arrays.equals(new long[] {1, 4}, neighbors(lattice, 0)));
+        assertTrue(Arrays.equals(new long[] {4, 6, 9}, neighbors(lattice, 5)));
+        assertTrue(Arrays.equals(new long[] {2, 5, 7}, neighbors(lattice, 6)));
+        assertTrue(Arrays.equals(new long[] {0, 2}, neighbors(lattice, 1)));
+    }
+    
+    /**
+     * Verify that every lattice's neighborhood is symmetric, so bonds and
+     * connections go both ways.
+     */
+    public void testLatticeNeighborsSymmetric() {
+        Lattice[] lattices = {new SquareLattice(4, 5, 3), new MooreLattice(5, 6),
+                              new TriangularLattice(5, 6), new HoneycombLattice(5, 6)};
+        long[] out, back;
+        int count;
+        
+        for (Lattice lattice : lattices) {
+            out = new long[lattice.maxNeighbors()];
+            back = new long[lattice.maxNeighbors()];
+            for (long site = 0; site < lattice.sites(); site++) {
+                count = lattice.neighbors(site, out);
+                for (int i = 0; i < count; i++) {
+                    assertTrue(lattice.isNeighbor(out[i], site, back));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Verify that the grid and cube cases of {@code SquareLattice} give the
+     * same neighbors as the loop over the axes, run on the same lattices with
+     * extra axes of extent 1.
+     */
+    public void testSquareLatticeSpecialCases() {
+        Lattice[][] pairs = {{new SquareLattice(3, 4), new SquareLattice(3, 4, 1, 1)},
+                             {new SquareLattice(4, 5, 3), new SquareLattice(4, 5, 3, 1)}};
+        
+        for (Lattice[] pair : pairs) {
+            assertEquals(pair[0].sites(), pair[1].sites());
+            for (long site = 0; site < pair[0].sites(); site++) {
+                assertTrue(Arrays.equals(neighbors(pair[1], site), neighbors(pair[0], site)));
+            }
+        }
+    }
+}
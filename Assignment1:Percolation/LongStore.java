@@ -0,0 +1,69 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 LongStore.java
+ *  Execution:    No main method.
+ *
+ *  Long-indexed array of longs, the storage of LatticePercolation.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code LongStore} interface is a fixed-size array of {@code long}s
+ * indexed by {@code long}, so it can hold more than the
+ * {@code Integer.MAX_VALUE} elements of a Java array. All elements start out
+ * 0.
+ * <p>
+ * The indexes are not validated; {@code LatticePercolation} checks them
+ * before calling in.
+ * 
+ * @see HeapLongStore
+ * @see DirectLongStore
+ */
+public interface LongStore {
+    
+    /**
+     * The {@code Factory} interface creates the store of a
+     * {@code LatticePercolation}, so the lattice can be kept on the heap, off
+     * the heap or in a file without changing how it is used. The constructors
+     * of the stores match it, e.g. {@code HeapLongStore::new}.
+     */
+    interface Factory {
+        
+        /**
+         * Create a store of {@code size} elements, all 0.
+         * 
+         * @param size The # of elements.
+         * 
+         * @return The new store.
+         */
+        LongStore create(long size);
+    }
+    
+    /**
+     * The # of elements.
+     * 
+     * @return The # of elements in the store.
+     */
+    long size();
+    
+    /**
+     * Return the element at {@code index}.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * 
+     * @return The element.
+     */
+    long get(long index);
+    
+    /**
+     * Replace the element at {@code index}.
+     * 
+     * @param index The index of the element, in {@code [0, size())}.
+     * @param value The new value of the element.
+     */
+    void set(long index, long value);
+    
+    /**
+     * Set all the elements back to 0.
+     */
+    void clear();
+}
@@ -0,0 +1,85 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Lattice.java MooreLattice.java
+ *  Execution:    No main method.
+ *
+ *  Square grid where each site is connected to all 8 surrounding sites.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code MooreLattice} class is a 2-dimensional {@code Lattice} where each
+ * site is connected to the 8 sites around it, diagonals included (the Moore
+ * neighborhood). Its site percolation threshold is about 0.407.
+ */
+public class MooreLattice extends Lattice {
+    private final long rows;
+    private final long cols;
+    
+    /**
+     * Initialize a grid of {@code rows}-by-{@code cols} sites.
+     * 
+     * @param rows The # of rows, from the top to the bottom.
+     * @param cols The # of columns.
+     * @throws IllegalArgumentException if {@code rows ≤ 0}, {@code cols ≤ 0}
+     *         or there are too many sites.
+     */
+    public MooreLattice(long rows, long cols) {
+        super(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
+    
+    /**
+     * The most neighbors a site can have.
+     * 
+     * @return 8.
+     */
+    public int maxNeighbors() {
+        return 8;
+    }
+    
+    /**
+     * Write the sites around {@code site} into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    public int neighbors(long site, long[] out) {
+        long row, col;
+        boolean left, right;
+        int count;
+        
+        row = site / cols;
+        col = site - row * cols;
+        left = col > 0;
+        right = col < cols - 1;
+        count = 0;
+        if (left) {
+            out[count++] = site - 1;
+        }
+        if (right) {
+            out[count++] = site + 1;
+        }
+        if (row > 0) {
+            out[count++] = site - cols;
+            if (left) {
+                out[count++] = site - cols - 1;
+            }
+            if (right) {
+                out[count++] = site - cols + 1;
+            }
+        }
+        if (row < rows - 1) {
+            out[count++] = site + cols;
+            if (left) {
+                out[count++] = site + cols - 1;
+            }
+            if (right) {
+                out[count++] = site + cols + 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,353 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Percolation.java OpenSequenceFile.java
+ *  Execution:    java-algs4 OpenSequenceFile input.txt output.bin
+ *                java-algs4 OpenSequenceFile input.txt output.bin varint
+ *                java-algs4 OpenSequenceFile output.bin
+ *
+ *  Compact binary format for sequences of sites to open, with a converter
+ *  from the text format of the sample inputs and a replayer.
+ *
+ ******************************************************************************/
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import edu.princeton.cs.algs4.In;
+
+/**
+ * The {@code OpenSequenceFile} class is a <em>data type</em> for reading a
+ * sequence of sites to open on an n-by-n grid from a binary file.
+ * <p>
+ * The text format of the sample inputs ({@code n}, then one "row col" pair per
+ * site) has to be tokenized and parsed number by number. The binary format
+ * stores the sites as their 0-based index {@code (row - 1) * n + (col - 1)},
+ * the same as {@code Percolation.openAll} takes, after a fixed header. All
+ * numbers are big-endian:
+ * <ul>
+ * <li>{@code int} magic number {@code 0x50455243} ("PERC").
+ * <li>{@code int} format version, currently 1.
+ * <li>{@code int} encoding of the sites, {@link #INT32} or {@link #VARINT}.
+ * <li>{@code int} size {@code n} of the grid.
+ * <li>{@code int} # of sites in the sequence.
+ * <li>The sites, either as 4-byte {@code int}s, or as unsigned LEB128 varints
+ *     (7 bits per byte, low bits first, high bit set on all but the last
+ *     byte), which takes 3 bytes per site up to 2 million sites.
+ * </ul>
+ * The file is memory-mapped and the sites are decoded straight from the
+ * mapping into the caller's {@code int[]}, in bulk for {@link #INT32}. Files
+ * are limited to 2GB, the most a single mapping can hold.
+ */
+public class OpenSequenceFile {
+    /**
+     * Encoding of sites as 4-byte big-endian {@code int}s.
+     */
+    public static final int INT32 = 0;
+    
+    /**
+     * Encoding of sites as unsigned LEB128 varints.
+     */
+    public static final int VARINT = 1;
+    
+    private static final int MAGIC = 0x50455243;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    // # of sites decoded at a time when replaying a file.
+    private static final int CHUNK_SITES = 8192;
+    private final int n;
+    private final int size;
+    private final int encoding;
+    private final ByteBuffer sites;
+    // View of the sites as ints, only for INT32.
+    private final IntBuffer intSites;
+    private int remaining;
+    
+    /**
+     * Map a binary open-sequence file and read its header.
+     * 
+     * @param filename The name of the file.
+     * @throws IllegalArgumentException if the file can't be read or is not an
+     *         open-sequence file.
+     */
+    public OpenSequenceFile(String filename) {
+        FileChannel channel;
+        ByteBuffer buffer;
+        
+        try {
+            channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+            try {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException(filename + " is larger than 2GB.");
+                }
+                // The mapping stays valid after the channel is closed.
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not open " + filename + ".", e);
+        }
+        
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException(filename + " is not an open-sequence file.");
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException(filename + " has an unsupported version.");
+        }
+        encoding = buffer.getInt();
+        n = buffer.getInt();
+        size = buffer.getInt();
+        if ((encoding != INT32 && encoding != VARINT) || n <= 0 || size < 0
+            || (encoding == INT32 && buffer.remaining() < 4L * size)) {
+            throw new IllegalArgumentException(filename + " has a corrupt header.");
+        }
+        sites = buffer.slice();
+        intSites = (encoding == INT32) ? sites.asIntBuffer() : null;
+        remaining = size;
+    }
+    
+    /**
+     * The size of the grid the sites are on.
+     * 
+     * @return The # of rows and columns in the grid.
+     */
+    public int n() {
+        return n;
+    }
+    
+    /**
+     * The # of sites in the sequence.
+     * 
+     * @return The # of sites in the file.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Read the next sites of the sequence into {@code dst[offset]} onwards.
+     * 
+     * @param dst The array to read the site indexes into.
+     * @param offset The position in {@code dst} of the first site read.
+     * @param length The most sites to read.
+     * 
+     * @return The # of sites read, or {@code -1} if the whole sequence has
+     *         already been read.
+     * @throws IllegalArgumentException if a varint runs past the end of the file
+     *         or doesn't fit in an {@code int}.
+     */
+    public int read(int[] dst, int offset, int length) {
+        int count, value, shift;
+        byte b;
+        
+        if (remaining == 0) {
+            return -1;
+        }
+        count = Math.min(length, remaining);
+        if (encoding == INT32) {
+            intSites.get(dst, offset, count);
+        } else {
+            for (int i = offset; i < offset + count; i++) {
+                value = 0;
+                shift = 0;
+                do {
+                    if (!sites.hasRemaining()) {
+                        throw corruptVarint(size - remaining + i - offset);
+                    }
+                    b = sites.get();
+                    // The 5th byte holds bits 28-31 of the int, so its 4 high
+                    // bits, continuation bit included, must be 0.
+                    if (shift == 28 && (b & 0xf0) != 0) {
+                        throw corruptVarint(size - remaining + i - offset);
+                    }
+                    value |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                dst[i] = value;
+            }
+        }
+        remaining -= count;
+        
+        return count;
+    }
+    
+    /**
+     * Return the exception for a varint that runs past the end of the file or
+     * doesn't fit in an {@code int}.
+     * 
+     * @param position The position in the sequence of the site.
+     * 
+     * @return The exception to throw.
+     */
+    private static IllegalArgumentException corruptVarint(int position) {
+        return new IllegalArgumentException("Corrupt varint at site " + position + ".");
+    }
+    
+    /**
+     * Open all the remaining sites of the sequence on {@code percolation}.
+     * 
+     * @param percolation A grid of size {@code n()}.
+     * 
+     * @return The position in the sequence of the site whose open made the
+     *         system percolate, or {@code -1} if none did.
+     * @throws IllegalArgumentException if the grid is not of size {@code n()}.
+     * @throws IndexOutOfBoundsException if a site is not in the grid.
+     */
+    public int replay(Percolation percolation) {
+        int[] chunk;
+        int count, percolatedAt, position, result;
+        
+        if (percolation.n() != n) {
+            throw new IllegalArgumentException("The grid is of size " + percolation.n()
+                                               + ", the sites are on a grid of size " + n + ".");
+        }
+        chunk = new int[CHUNK_SITES];
+        position = size - remaining;
+        result = -1;
+        while ((count = read(chunk, 0, chunk.length)) > 0) {
+            percolatedAt = percolation.openAll(chunk, 0, count);
+            if (percolatedAt >= 0) {
+                result = position + percolatedAt;
+                // Open the rest of the chunk too.
+                percolation.openAll(chunk, percolatedAt + 1, count);
+            }
+            position += count;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Write a sequence of sites to a binary open-sequence file.
+     * 
+     * @param filename The name of the file to create.
+     * @param n The size of the grid.
+     * @param sites The indexes of the sites, {@code (row - 1) * n + (col - 1)}.
+     * @param count The # of sites to write from the start of {@code sites}.
+     * @param encoding {@link #INT32} or {@link #VARINT}.
+     * @throws IllegalArgumentException if {@code n <= 0}, the encoding is
+     *         unknown, a site is not in the grid, or the file can't be written.
+     */
+    public static void write(String filename, int n, int[] sites, int count, int encoding) {
+        DataOutputStream out;
+        long totSites;
+        int value;
+        
+        if (n <= 0) {
+            throw new IllegalArgumentException("Must enter a value greater than 0. You entered "
+                                               + n + ".");
+        }
+        if (encoding != INT32 && encoding != VARINT) {
+            throw new IllegalArgumentException("Unknown encoding " + encoding + ".");
+        }
+        // n * n overflows an int for n > 46340.
+        totSites = (long) n * n;
+        for (int i = 0; i < count; i++) {
+            if (sites[i] < 0 || sites[i] >= totSites) {
+                throw new IllegalArgumentException("Site " + sites[i] + " at position " + i
+                                                   + " is not in a grid of size " + n + ".");
+            }
+        }
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(encoding);
+                out.writeInt(n);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    if (encoding == INT32) {
+                        out.writeInt(sites[i]);
+                    } else {
+                        value = sites[i];
+                        while ((value & ~0x7f) != 0) {
+                            out.writeByte((value & 0x7f) | 0x80);
+                            value >>>= 7;
+                        }
+                        out.writeByte(value);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write " + filename + ".", e);
+        }
+    }
+    
+    /**
+     * Convert a text file of sites, as read by {@code PercolationVisualizer},
+     * to a binary open-sequence file.
+     * 
+     * @param textFilename The name of the text file.
+     * @param filename The name of the binary file to create.
+     * @param encoding {@link #INT32} or {@link #VARINT}.
+     * 
+     * @return The # of sites converted.
+     * @throws IllegalArgumentException if a site is not in the grid.
+     */
+    public static int convert(String textFilename, String filename, int encoding) {
+        In in;
+        int n, count, row, col;
+        int[] sites, resized;
+        
+        in = new In(textFilename);
+        n = in.readInt();
+        sites = new int[16];
+        count = 0;
+        while (!in.isEmpty()) {
+            row = in.readInt();
+            col = in.readInt();
+            if ((row <= 0 || row > n) || (col <= 0 || col > n)) {
+                throw new IllegalArgumentException("row/column (" + row + "/" + col
+                                                   + ") out of bounds (1 - " + n + ").");
+            }
+            if (count == sites.length) {
+                resized = new int[2 * count];
+                System.arraycopy(sites, 0, resized, 0, count);
+                sites = resized;
+            }
+            sites[count++] = (row - 1) * n + (col - 1);
+        }
+        in.close();
+        write(filename, n, sites, count, encoding);
+        
+        return count;
+    }
+    
+    public static void main(String[] args) {
+        OpenSequenceFile file;
+        Percolation percolation;
+        long start;
+        int count, percolatedAt;
+        
+        if (args.length == 2 || (args.length == 3 && args[2].equals("varint"))) {
+            count = convert(args[0], args[1], (args.length == 3) ? VARINT : INT32);
+            System.out.println("converted " + count + " sites to " + args[1]);
+        } else if (args.length == 1) {
+            start = System.nanoTime();
+            file = new OpenSequenceFile(args[0]);
+            percolation = new Percolation(file.n());
+            percolatedAt = file.replay(percolation);
+            System.out.println("n                    = " + file.n());
+            System.out.println("sites replayed       = " + file.size());
+            System.out.println("open sites           = " + percolation.numberOfOpenSites());
+            System.out.println("percolates at site   = " + percolatedAt);
+            System.out.println("elapsed milliseconds = " + (System.nanoTime() - start) / 1000000);
+        } else {
+            throw new IllegalArgumentException("You must run this program with either two " +
+                                               "command-line arguments - a text file of sites " +
+                                               "and the binary file to convert it to, with an " +
+                                               "optional third argument \"varint\" to use the " +
+                                               "compact encoding - or with one argument, a " +
+                                               "binary file to replay.");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/******************************************************************************
+ * Run: Open OpenSequenceFile.java and OpenSequenceFileTest.java in DrJava and
+ *      click Test.
+ *
+ *  Unit tests for the binary open-sequence file format.
+ * 
+ ******************************************************************************/
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the OpenSequenceFile class.
+ */
+public class OpenSequenceFileTest extends TestCase {
+    
+    /**
+     * Write sites in both encodings, including ones that take several varint
+     * bytes, and verify that they are read back in order.
+     */
+    public void testOpenSequenceFileRoundTrip() throws IOException {
+        File file;
+        OpenSequenceFile sequence;
+        int[] sites = {0, 127, 128, 16383, 16384, 999999, 5};
+        int[] read;
+        int encoding;
+        
+        file = File.createTempFile("sites", ".bin");
+        try {
+            for (int e = 0; e < 2; e++) {
+                encoding = (e == 0) ? OpenSequenceFile.INT32 : OpenSequenceFile.VARINT;
+                OpenSequenceFile.write(file.getPath(), 1000, sites, sites.length, encoding);
+                sequence = new OpenSequenceFile(file.getPath());
+                assertEquals(1000, sequence.n());
+                assertEquals(sites.length, sequence.size());
+                read = new int[sites.length + 1];
+                assertEquals(4, sequence.read(read, 1, 4));
+                assertEquals(3, sequence.read(read, 5, 4));
+                assertEquals(-1, sequence.read(read, 0, 4));
+                for (int i = 0; i < sites.length; i++) {
+                    assertEquals(sites[i], read[i + 1]);
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Convert a text file of sites on a grid of size 3 and replay it, and
+     * verify the position of the site that makes the system percolate.
+     */
+    public void testOpenSequenceFileConvertAndReplay() throws IOException {
+        File text, file;
+        PrintWriter writer;
+        OpenSequenceFile sequence;
+        Percolation percolation;
+        
+        text = File.createTempFile("sites", ".txt");
+        file = File.createTempFile("sites", ".bin");
+        try {
+            writer = new PrintWriter(text);
+            writer.println("3\n1 2\n2 2\n2 2\n3 3\n3 2\n1 3");
+            writer.close();
+            assertEquals(6, OpenSequenceFile.convert(text.getPath(), file.getPath(),
+                                                     OpenSequenceFile.VARINT));
+            sequence = new OpenSequenceFile(file.getPath());
+            percolation = new Percolation(sequence.n());
+            assertEquals(4, sequence.replay(percolation));
+            assertEquals(5, percolation.numberOfOpenSites());
+            assertTrue(percolation.isOpen(1, 3));
+        } finally {
+            text.delete();
+            file.delete();
+        }
+    }
+    
+    /**
+     * Test reading a file that isn't an open-sequence file, writing a site
+     * that isn't in the grid, and replaying sites on a grid of another size.
+     */
+    public void testOpenSequenceFileWithBadArg() throws IOException {
+        File file;
+        FileOutputStream out;
+        
+        file = File.createTempFile("sites", ".bin");
+        try {
+            out = new FileOutputStream(file);
+            out.write("3\n1 1\n2 1\n".getBytes("US-ASCII"));
+            out.close();
+            try {
+                new OpenSequenceFile(file.getPath());
+                fail();
+            } catch (final IllegalArgumentException e) {
+                assertEquals(file.getPath() + " is not an open-sequence file.", e.getMessage());
+            }
+            try {
+                OpenSequenceFile.write(file.getPath(), 3, new int[] {0, 9}, 2, OpenSequenceFile.INT32);
+                fail();
+            } catch (final IllegalArgumentException e) {
+                assertEquals("Site 9 at position 1 is not in a grid of size 3.", e.getMessage());
+            }
+            OpenSequenceFile.write(file.getPath(), 3, new int[] {0, 8}, 2, OpenSequenceFile.INT32);
+            try {
+                new OpenSequenceFile(file.getPath()).replay(new Percolation(4));
+                fail();
+            } catch (final IllegalArgumentException e) {
+                assertEquals("The grid is of size 4, the sites are on a grid of size 3.",
+                             e.getMessage());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Write a site past {@code Integer.MAX_VALUE / n} on a grid whose # of
+     * sites doesn't fit in an {@code int}, and verify that it is read back.
+     */
+    public void testOpenSequenceFileLargeGrid() throws IOException {
+        File file;
+        OpenSequenceFile sequence;
+        int[] read;
+        
+        file = File.createTempFile("sites", ".bin");
+        try {
+            OpenSequenceFile.write(file.getPath(), 50000, new int[] {2000000000}, 1,
+                                   OpenSequenceFile.VARINT);
+            sequence = new OpenSequenceFile(file.getPath());
+            read = new int[1];
+            assertEquals(1, sequence.read(read, 0, 1));
+            assertEquals(2000000000, read[0]);
+        } finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Read a varint whose 5th byte has bits that don't fit in an {@code int}.
+     */
+    public void testOpenSequenceFileVarintOverflow() throws IOException {
+        File file;
+        DataOutputStream out;
+        
+        file = File.createTempFile("sites", ".bin");
+        try {
+            out = new DataOutputStream(new FileOutputStream(file));
+            out.writeInt(0x50455243);
+            out.writeInt(1);
+            out.writeInt(OpenSequenceFile.VARINT);
+            out.writeInt(3);
+            out.writeInt(1);
+            out.write(new byte[] {(byte) 0x81, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x70});
+            out.close();
+            try {
+                new OpenSequenceFile(file.getPath()).read(new int[1], 0, 1);
+                fail();
+            } catch (final IllegalArgumentException e) {
+                assertEquals("Corrupt varint at site 0.", e.getMessage());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
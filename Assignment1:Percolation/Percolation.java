@@ -6,34 +6,62 @@
  * 
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
 
 /**
  * The {@code Percolation} class represents a <em>data type</em> for modelling
  * percolation system as defined at <a href="http://coursera.cs.princeton.edu/algs4/assignments/percolation.html">Programming Assignment 1: Percolation</a>
  * <p>
- * {@code Percolation} class is implemented using {@code WeightedQuickUnionUF}
- * class. Each site in the {@code n * n} grid is represented on the  {@code WeightedQuickUnionUF}
- * by an index. Two additional elements are added to the array to represent 
+ * {@code Percolation} class is implemented using the {@code PercolationUF}
+ * class, a weighted quick union-find with path halving. Each site in the
+ * {@code n * n} grid is represented on the {@code PercolationUF} by an index.
+ * Every set of connected open sites also carries two status bits:
  * <ul>
- * <li><em>Top row site </em>- Site connected to all top row sites.
- * <li><em>Bottom row site </em> - Site connected to all bottom row sites.
+ * <li><em>{@code TOP}</em> - The set contains a site in the top row.
+ * <li><em>{@code BOTTOM}</em> - The set contains a site in the bottom row.
  * </ul>
- * This enables us check if the system is percolation by just checking if the 
- * <em>Top row site</em> is connected to the <em>Bottom row site </em>.
+ * A site opened in the top or bottom row sets the bit on its own set, and the
+ * bits of two sets are combined when opening a site merges them. A site is full
+ * if its set has the {@code TOP} bit, and the system percolates as soon as an
+ * open creates a set with both bits. Unlike connecting the top and bottom rows
+ * to two virtual sites, this doesn't suffer from the backwash problem, and it
+ * needs no second union-find to avoid it.
+ * <p>
+ * The open/blocked state of the sites is kept in a bitset packed into a single
+ * {@code long[]}, one bit per site, addressed by the same index as the
+ * union-find. This takes an eighth of the memory of a {@code boolean[][]} and
+ * the neighbors of a site are found by simple index arithmetic on one array.
+ * <p>
+ * An instance can be reused for another run on a grid of the same size with
+ * {@link #reset()}, which only touches the sites that were opened.
  * 
  * @author Ashutosh Grewal
  * 
  * @see <a href="http://coursera.cs.princeton.edu/algs4/checklists/percolation.html">Checklist: Percolation</a>
- *      This implementation suffers from the backwash problem described in the 
- *      FAQ section of the checklist.
+ *      The backwash problem is described in the FAQ section of the checklist.
  */
 public class Percolation {
-    private boolean[][] site;
-    private boolean topRowOpen, bottomRowOpen;
-    private final int topRowSite, bottomRowSite, rowColSize;
+    /**
+     * State of a blocked site in a {@link #snapshot(byte[])}.
+     */
+    public static final byte BLOCKED = 0;
+    
+    /**
+     * State of an open site that isn't full in a {@link #snapshot(byte[])}.
+     */
+    public static final byte OPEN = 1;
+    
+    /**
+     * State of a full site in a {@link #snapshot(byte[])}.
+     */
+    public static final byte FULL = 2;
+    
+    private final long[] openSites;
+    private boolean percolates;
+    private final int rowColSize;
     private int numOpenSites;
-    private final WeightedQuickUnionUF weightedQuickFind;
+    private int largestClusterSize;
+    private final PercolationUF weightedQuickFind;
     
     /**
      * Initialize the fields in the {@code Percolation} class including creating
@@ -48,20 +76,43 @@ public class Percolation {
                                                + "0. You entered " 
                                                + Integer.toString(n) + ".");
         }
-        weightedQuickFind = new WeightedQuickUnionUF(n * n + 2);
-        site = new boolean[n][n];
+        weightedQuickFind = new PercolationUF(n * n);
+        // All sites start out blocked, which is the default value of the array.
+        openSites = new long[(n * n + 63) >>> 6];
         rowColSize = n;
-        // Mark all sites as not connected
-        for (int i = 0; i < rowColSize; i++) {
-            for (int j = 0; j < rowColSize; j++) {
-                site[i][j] = false;
+        numOpenSites = 0;
+        largestClusterSize = 0;
+        percolates = false;
+    }
+    
+    /**
+     * Block all the sites again, as if the grid had just been created.
+     * <p>
+     * Only the union-find entries of the open sites are ever changed, so they
+     * are the only ones reset. They are found by scanning the bitset of open
+     * sites a word at a time, which takes {@code n * n / 64} steps plus one
+     * step per open site, and allocates nothing.
+     */
+    public void reset() {
+        long word;
+        int index;
+        
+        for (int i = 0; i < openSites.length; i++) {
+            word = openSites[i];
+            if (word == 0) {
+                continue;
             }
+            while (word != 0) {
+                index = (i << 6) + Long.numberOfTrailingZeros(word);
+                weightedQuickFind.reset(index);
+                // Clear the lowest set bit.
+                word &= word - 1;
+            }
+            openSites[i] = 0;
         }
         numOpenSites = 0;
-        topRowOpen = false;
-        bottomRowOpen = false;
-        topRowSite = (rowColSize * rowColSize);
-        bottomRowSite = topRowSite + 1;
+        largestClusterSize = 0;
+        percolates = false;
     }
     
     /**
@@ -76,91 +127,176 @@ public class Percolation {
     private int getSite(int row, int col) {
         return ((rowColSize * row) + col);
     }
+    
+    /**
+     * Check the bit of this site in the bitset of open sites.
+     * 
+     * @param index Index of the site as returned by {@code getSite}.
+     * 
+     * @return {@code True} if the site is open, {@code false} otherwise.
+     */
+    private boolean isSiteOpen(int index) {
+        return (openSites[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * Set the bit of this site in the bitset of open sites.
+     * 
+     * @param index Index of the site as returned by {@code getSite}.
+     */
+    private void markSiteOpen(int index) {
+        openSites[index >>> 6] |= (1L << index);
+    }
         
     /**
      * Mark a particular site open in the grid. When the site is opened, it is
      * connected to all the open neighboring sites to the left, right, upward or
      * downward direction.
      * <p>
-     * We also keep track of the # of open sites in this method.
+     * We also keep track of the # of open sites in this method, and whether
+     * the new set of connected sites touches both the top and the bottom row.
      * 
      * @param row The row this site is located in.
      * @param col The column this site is located at.
-     * @throws IndexOutOfBoundsException if {@code (row <= 0 || row > rowColSize)
+     * @throws IllegalArgumentException if {@code (row <= 0 || row > rowColSize)
      *         or (col <= 0 || col > rowColSize)}.
      */
     public void open(int row, int col) {
-        int currentSite, rowIndex, colIndex, leftNeighbor, rightNeighbor, upNeighbor, downNeighbor;
-        
         if ((row <= 0 || row > rowColSize) || (col <= 0 || col > rowColSize)) { 
             throw new IllegalArgumentException("row/column (" + row + "/" + col
                                                 + ") out of bounds " + "(1 - "
                                                 + rowColSize + ").");
         }
-        rowIndex = row - 1;
-        colIndex = col - 1;
-        currentSite = getSite(rowIndex, colIndex);
-
-        if (site[rowIndex][colIndex]) {
+        openSite(getSite(row - 1, col - 1), row - 1, col - 1);
+    }
+    
+    /**
+     * Open the sites {@code sites[from]} to {@code sites[to - 1]} in order,
+     * stopping right after the open that makes the system percolate.
+     * <p>
+     * Sites are given by their 0-based index {@code (row - 1) * n + (col - 1)},
+     * so a whole sequence of opens can be fed from a buffer without a method
+     * call, a bounds check on the row and column and a {@code percolates()}
+     * call per site. Sites that are already open are skipped. If the system
+     * already percolates when this method is called, all the sites are opened
+     * and {@code -1} is returned.
+     * 
+     * @param sites The indexes of the sites to open.
+     * @param from The position in {@code sites} of the first site to open.
+     * @param to One past the position in {@code sites} of the last site to open.
+     * 
+     * @return The position in {@code sites} of the site whose open made the
+     *         system percolate, or {@code -1} if no site in the range did.
+     * @throws IndexOutOfBoundsException if {@code from < 0}, {@code to > sites.length}
+     *         or {@code from > to}, or if a site index is not in
+     *         {@code [0, n * n)}. The sites before the offending one are opened.
+     */
+    public int openAll(int[] sites, int from, int to) {
+        int site, rowIndex, totSites;
+        boolean percolatedBefore;
+        
+        if (from < 0 || to > sites.length || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to
+                                                + ") out of bounds (0 - "
+                                                + sites.length + ").");
+        }
+        totSites = rowColSize * rowColSize;
+        percolatedBefore = percolates;
+        for (int i = from; i < to; i++) {
+            site = sites[i];
+            if (site < 0 || site >= totSites) {
+                throw new IndexOutOfBoundsException("site " + site + " at position "
+                                                    + i + " out of bounds (0 - "
+                                                    + (totSites - 1) + ").");
+            }
+            rowIndex = site / rowColSize;
+            openSite(site, rowIndex, site - rowIndex * rowColSize);
+            if (percolates && !percolatedBefore) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Open a site given by its 0-based index {@code (row - 1) * n + (col - 1)},
+     * without checking that the index is in the grid. This is for callers in
+     * this package that generate the indexes themselves and need to look at the
+     * grid after every open, such as {@code PercolationSweep}.
+     * 
+     * @param site The index of the site, in {@code [0, n * n)}.
+     */
+    void openSite(int site) {
+        int rowIndex;
+        
+        rowIndex = site / rowColSize;
+        openSite(site, rowIndex, site - rowIndex * rowColSize);
+    }
+    
+    /**
+     * Open a site known to be in the grid, and connect it to its open neighbors.
+     * 
+     * @param currentSite Index of the site as returned by {@code getSite}.
+     * @param rowIndex The 0-based row of the site.
+     * @param colIndex The 0-based column of the site.
+     */
+    private void openSite(int currentSite, int rowIndex, int colIndex) {
+        int leftNeighbor, rightNeighbor, upNeighbor, downNeighbor;
+        int root, status;
+        
+        if (isSiteOpen(currentSite)) {
             return;
         }
         numOpenSites++;
             
         // Mark this site Open.
-        site[rowIndex][colIndex] = true;
+        markSiteOpen(currentSite);
+        root = currentSite;
         // Connect to the neighbor on the left.
         if (colIndex > 0) {
-            leftNeighbor = getSite(rowIndex, colIndex - 1);
-            if (site[rowIndex][colIndex - 1]) {
-                // System.out.println(currentSite + " - left " + leftNeighbor);
-                weightedQuickFind.union(currentSite, leftNeighbor);
+            leftNeighbor = currentSite - 1;
+            if (isSiteOpen(leftNeighbor)) {
+                root = weightedQuickFind.union(root, leftNeighbor);
             }
         }
         // Connect to the neighbor on the right.
         if (colIndex < rowColSize - 1) {
-            rightNeighbor = getSite(rowIndex, colIndex + 1);
-            if (site[rowIndex][colIndex + 1]) {
-                // System.out.println(currentSite + " - right " + rightNeighbor);
-                weightedQuickFind.union(currentSite, rightNeighbor);
+            rightNeighbor = currentSite + 1;
+            if (isSiteOpen(rightNeighbor)) {
+                root = weightedQuickFind.union(root, rightNeighbor);
             }
         }
         // Connect to the neighbor above.
         if (rowIndex > 0) {
-            upNeighbor = getSite(rowIndex - 1, colIndex);
-            if (site[rowIndex - 1][colIndex]) {
-                // System.out.println(currentSite + " - up" + upNeighbor);
-                weightedQuickFind.union(currentSite, upNeighbor);
+            upNeighbor = currentSite - rowColSize;
+            if (isSiteOpen(upNeighbor)) {
+                root = weightedQuickFind.union(root, upNeighbor);
             }
         }
         // Connect to the neighbor below.
         if (rowIndex < rowColSize - 1) {
-            downNeighbor = getSite(rowIndex + 1, colIndex);
-            if (site[rowIndex + 1][colIndex]) {
-                // System.out.println(currentSite + " - down" + downNeighbor);
-                weightedQuickFind.union(currentSite, downNeighbor);
+            downNeighbor = currentSite + rowColSize;
+            if (isSiteOpen(downNeighbor)) {
+                root = weightedQuickFind.union(root, downNeighbor);
             }
         }
         
-        // Open the top or bottom row if it wasn't open already if a site in the
-        // first site in top or bottom row just opened up.
+        // A site in the top or bottom row connects its whole set to that row.
+        status = 0;
         if (rowIndex == 0) {
-            if (!topRowOpen) {
-                topRowOpen = true;
-                for (int i = 0; i < rowColSize; i++) {
-                    // Connect the last but one to all top sites.
-                    weightedQuickFind.union(getSite(0, i), topRowSite); 
-                }
-            }
+            status |= PercolationUF.TOP;
         }
         if (rowIndex == (rowColSize - 1)) {
-            if (!bottomRowOpen) {
-                bottomRowOpen = true;
-                for (int i = 0; i < rowColSize; i++) {
-                    // Connect the last one to all bottom sites.
-                    weightedQuickFind.union(getSite(rowColSize - 1, i), bottomRowSite);
-                }
-            }
-        }           
+            status |= PercolationUF.BOTTOM;
+        }
+        if (weightedQuickFind.size(root) > largestClusterSize) {
+            largestClusterSize = weightedQuickFind.size(root);
+        }
+        status = weightedQuickFind.addStatus(root, status);
+        if (status == (PercolationUF.TOP | PercolationUF.BOTTOM)) {
+            percolates = true;
+        }
     }
     
     /**
@@ -170,7 +306,7 @@ public class Percolation {
      * @param col The column this site is located at.
      * 
      * @return {@code True} if the site is open, {@code false} otherwise.
-     * @throws IndexOutOfBoundsException if {@code (row <= 0 || row > rowColSize)
+     * @throws IllegalArgumentException if {@code (row <= 0 || row > rowColSize)
      *         or (col <= 0 || col > rowColSize)}.
      */
     public boolean isOpen(int row, int col) {
@@ -179,7 +315,7 @@ public class Percolation {
                                                 + ") out of bounds " + "(1 - "
                                                 + rowColSize + ").");
         }
-        return site[row - 1][col - 1];
+        return isSiteOpen(getSite(row - 1, col - 1));
     }
     
    /**
@@ -191,7 +327,7 @@ public class Percolation {
      * 
      * @return {@code True} if the site is open and connected to one of the top
      *         sites, {@code false} otherwise.
-     * @throws IndexOutOfBoundsException if {@code row <= 0 || row > rowColSize)
+     * @throws IllegalArgumentException if {@code (row <= 0 || row > rowColSize)
      *         or (col <= 0 || col > rowColSize)}.
      */
     public boolean isFull(int row, int col) {
@@ -202,13 +338,73 @@ public class Percolation {
                                                 + ") out of bounds " + "(1 - "
                                                 + rowColSize + ").");
         }
+        currentSite = getSite(row - 1, col - 1);
         // If the site is not Open, then it is not Full.
-        if (!site[row - 1][col - 1]) {
+        if (!isSiteOpen(currentSite)) {
             return false;
         }  
-        currentSite = getSite(row - 1, col - 1);
         
-        return weightedQuickFind.connected(currentSite, topRowSite);
+        return (weightedQuickFind.status(currentSite) & PercolationUF.TOP) != 0;
+    }
+    
+    /**
+     * Record the state of every site, {@link #BLOCKED}, {@link #OPEN} or
+     * {@link #FULL}, in {@code states}, in row-major order: the state of site
+     * {@code (row, col)} goes to {@code states[(row - 1) * n + (col - 1)]}.
+     * <p>
+     * This takes a single pass over the grid, with no bounds checks. Runs of 64
+     * blocked sites are skipped a bitset word at a time, and the root of the
+     * last open site and its state are cached, so an open site in the same
+     * cluster as the one before it (the common case along a row) needs only a
+     * {@code find}, and no status lookup.
+     * 
+     * @param states The array to record the states in, of length at least
+     *        {@code n * n}.
+     * @throws IllegalArgumentException if {@code states} is shorter than
+     *         {@code n * n}.
+     */
+    public void snapshot(byte[] states) {
+        int totSites, site, root, lastRoot, end;
+        byte lastState;
+        
+        totSites = rowColSize * rowColSize;
+        if (states.length < totSites) {
+            throw new IllegalArgumentException("Must pass an array of at least "
+                                               + totSites + " states. You passed "
+                                               + states.length + ".");
+        }
+        lastRoot = -1;
+        lastState = BLOCKED;
+        site = 0;
+        while (site < totSites) {
+            if (openSites[site >>> 6] == 0) {
+                // A whole word of blocked sites.
+                end = Math.min((site | 63) + 1, totSites);
+                Arrays.fill(states, site, end, BLOCKED);
+                site = end;
+                continue;
+            }
+            if (!isSiteOpen(site)) {
+                states[site] = BLOCKED;
+            } else {
+                root = weightedQuickFind.find(site);
+                if (root != lastRoot) {
+                    lastRoot = root;
+                    lastState = ((weightedQuickFind.status(root) & PercolationUF.TOP) != 0) ? FULL : OPEN;
+                }
+                states[site] = lastState;
+            }
+            site++;
+        }
+    }
+    
+    /**
+     * The size of the grid.
+     * 
+     * @return The # of rows and columns in the grid.
+     */
+    int n() {
+        return rowColSize;
     }
     
     /**
@@ -220,6 +416,17 @@ public class Percolation {
         return numOpenSites;
     }
     
+    /**
+     * The # of sites in the largest set of connected open sites. Clusters only
+     * ever grow, so this is kept up to date by {@code open} at the cost of one
+     * comparison.
+     * 
+     * @return The size of the largest cluster, 0 if no site is open.
+     */
+    public int largestClusterSize() {
+        return largestClusterSize;
+    }
+    
     /**
      * Check if any site on the top row is connected to any site on the bottom row.
      * 
@@ -227,6 +434,6 @@ public class Percolation {
      *         at the bottomr, {@code false} otherwise.
      */
     public boolean percolates() {
-        return weightedQuickFind.connected(topRowSite, bottomRowSite);
+        return percolates;
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Percolation.java RandomSource.java
+ *                javac-algs4 SplittableRandomSource.java
+ *                javac-algs4 PercolationOpenLatency.java
+ *  Execution:    java-algs4 PercolationOpenLatency 100 1000 4000
+ *
+ *  Latency histogram of Percolation.open.
+ * 
+ ******************************************************************************/
+
+/**
+ * The {@code PercolationOpenLatency} class is a client program that times
+ * every single call to {@code Percolation.open} while opening all the sites of
+ * n-by-n grids in random order, and prints a histogram of the latencies for
+ * each grid size.
+ * <p>
+ * The latencies are counted in power-of-two buckets of nanoseconds. The
+ * interesting column is the worst case: {@code open} only does a bounded
+ * amount of work per call (at most four unions and one status update), so the
+ * maximum shouldn't grow with {@code n} apart from cache effects and the odd
+ * garbage collection or timer interrupt.
+ */
+public class PercolationOpenLatency {
+    private static final int BUCKETS = 40;
+    private static final long SEED = 700;
+    
+    /**
+     * Open every site of an n-by-n grid in random order and record the
+     * latency of each {@code open} call.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param histogram The # of calls per power-of-two bucket of nanoseconds.
+     * 
+     * @return The longest latency of any single call, in nanoseconds.
+     */
+    private static long measure(int n, long[] histogram) {
+        Percolation percolation;
+        RandomSource random;
+        int[] sites;
+        int totSites, j, site;
+        long start, latency, maxLatency;
+        
+        totSites = n * n;
+        sites = new int[totSites];
+        for (int i = 0; i < totSites; i++) {
+            sites[i] = i;
+        }
+        random = new SplittableRandomSource(SEED);
+        percolation = new Percolation(n);
+        maxLatency = 0;
+        for (int i = 0; i < totSites; i++) {
+            j = i + random.uniform(totSites - i);
+            site = sites[j];
+            sites[j] = sites[i];
+            sites[i] = site;
+            
+            start = System.nanoTime();
+            percolation.open(1 + site / n, 1 + site % n);
+            latency = System.nanoTime() - start;
+            
+            histogram[63 - Long.numberOfLeadingZeros(latency | 1)]++;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+        return maxLatency;
+    }
+    
+    /**
+     * Return the upper bound of the bucket containing the given percentile.
+     * 
+     * @param histogram The # of calls per power-of-two bucket of nanoseconds.
+     * @param total The total # of calls.
+     * @param percentile The percentile, between 0 and 1.
+     * 
+     * @return The upper bound of the bucket in nanoseconds.
+     */
+    private static long percentile(long[] histogram, long total, double percentile) {
+        long seen;
+        
+        seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= percentile * total) {
+                return 1L << (b + 1);
+            }
+        }
+        return 1L << histogram.length;
+    }
+    
+    public static void main(String[] args) {
+        int[] sizes;
+        long[] histogram;
+        long maxLatency, total;
+        
+        if (args.length == 0) {
+            sizes = new int[] {100, 1000, 4000};
+        } else {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        
+        // Warm up so that the measurements see the compiled open.
+        for (int i = 0; i < 5; i++) {
+            measure(300, new long[BUCKETS]);
+        }
+        
+        System.out.println("       n       opens    p50 (ns)    p99 (ns)  p99.9 (ns)    max (ns)");
+        for (int n : sizes) {
+            histogram = new long[BUCKETS];
+            maxLatency = measure(n, histogram);
+            total = (long) n * n;
+            System.out.printf("%8d %11d %11s %11s %11s %11d%n", n, total,
+                              "< " + percentile(histogram, total, 0.5),
+                              "< " + percentile(histogram, total, 0.99),
+                              "< " + percentile(histogram, total, 0.999),
+                              maxLatency);
+            for (int b = 0; b < BUCKETS; b++) {
+                if (histogram[b] != 0) {
+                    System.out.printf("         [%10d, %10d) %11d%n", 1L << b, 1L << (b + 1), histogram[b]);
+                }
+            }
+        }
+    }
+}
@@ -1,26 +1,53 @@
 /******************************************************************************
- *  Compilation:  javac-algs4 Percolation.java
- *                javac-algs4 PercolationStats.java
+ *  Compilation:  javac-algs4 Percolation.java RandomSource.java
+ *                javac-algs4 SplittableRandomSource.java TrialStatistics.java
+ *                javac-algs4 TrialRanges.java PercolationStats.java
  *  Execution:    java-algs4 PercolationStats 20 10
+ *                java-algs4 PercolationStats 200 1000 8
+ *                java-algs4 PercolationStats 200 1000 8 700
  *
  *  PercolationStats data type.
  * 
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@code PercolationStats} class represents a <em>data type</em> for to
  * perform a series of computational experiments as defined at 
  * <a href="http://coursera.cs.princeton.edu/algs4/assignments/percolation.html"> Programming Assignment 1: Percolation </a>.
+ * <p>
+ * The trials are independent of each other, so they can optionally be spread
+ * over a {@code ForkJoinPool} with {@code TrialRanges}. The range of trials
+ * is split recursively into tasks, each of which accumulates the thresholds
+ * of its trials in its own {@code TrialStatistics}. The statistics of the two
+ * halves of a range are then merged, so no thresholds are stored and the
+ * memory used doesn't depend on the # of trials. The ranges are split the
+ * same way whatever the parallelism (and when running serially), so the
+ * merges happen in the same order too.
+ * <p>
+ * Each trial draws its random sites from its own {@code RandomSource}, derived
+ * from a master seed and the trial's index. Runs with the same seed therefore
+ * give the same results whatever the parallelism.
+ * <p>
+ * Instead of a fixed # of trials, an experiment can also be asked for a
+ * precision: trials are then run in batches until the 95% confidence interval
+ * is narrower than the requested width, or a budget of trials or time runs out.
  * 
  * @author Ashutosh Grewal
  */
 public class PercolationStats {
-    // private static final int SEED = 700;
-    private double[] trialResults;
-    private int totSites;
+    // The # of ranges the trials are split into. Enough for the workers to
+    // balance their load, few enough to keep the per-range setup cheap.
+    private static final int MAX_TASKS = 256;
+    // The # of trials run before the confidence interval is first checked.
+    private static final int MIN_ADAPTIVE_TRIALS = 32;
+    private static final double CONFIDENCE_95 = 1.96;
+    private final TrialStatistics statistics;
+    private final int totSites;
+    private final long seed;
          
     /**
      * Find the percolation threshold {@code trials} # of times on an n-by-n grid.
@@ -31,7 +58,42 @@ public class PercolationStats {
      * @throws IllegalArgumentException if either {@code n ≤ 0} or {@code trials ≤ 0}.
      */
     public PercolationStats(int n, int trials) {
-        trialResults = new double[trials];
+        this(n, trials, 1);
+    }
+    
+    /**
+     * Find the percolation threshold {@code trials} # of times on an n-by-n grid
+     * using up to {@code parallelism} worker threads.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param trials The # of times computation of threshold is requested.
+     * @param parallelism The # of worker threads to run the trials on. A value
+     *        of 1 runs all the trials on the calling thread.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0}, {@code trials ≤ 0}
+     *         or {@code parallelism ≤ 0}.
+     */
+    public PercolationStats(int n, int trials, int parallelism) {
+        this(n, trials, parallelism, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Find the percolation threshold {@code trials} # of times on an n-by-n grid
+     * using up to {@code parallelism} worker threads. The sites opened in each
+     * trial are picked from random numbers derived from {@code seed}, so
+     * repeated runs with the same seed give the same statistics.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param trials The # of times computation of threshold is requested.
+     * @param parallelism The # of worker threads to run the trials on. A value
+     *        of 1 runs all the trials on the calling thread.
+     * @param seed The master seed all the trials' random numbers derive from.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0}, {@code trials ≤ 0}
+     *         or {@code parallelism ≤ 0}.
+     */
+    public PercolationStats(int n, int trials, int parallelism, long seed) {
+        ForkJoinPool pool;
         
         if (n <= 0 || trials <= 0) {
             throw new IllegalArgumentException("Must enter a value greater than "
@@ -39,35 +101,196 @@ public class PercolationStats {
                                                + Integer.toString(n) + " and trails = "
                                                + Integer.toString(trials) + ".");
         }
-        // StdRandom.setSeed(SEED);
-        for (int i = 0; i < trialResults.length; i++) {
-            trialResults[i] = findPercolationThreshold(n);
-            // System.out.println("Trial " + i + " = " + trialResults[i]);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0. "
+                                               + "You entered "
+                                               + Integer.toString(parallelism) + ".");
         }
+        totSites = n * n;
+        this.seed = seed;
+        
+        pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+        try {
+            statistics = runBatch(pool, n, 0, trials);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    /**
+     * Keep finding the percolation threshold on an n-by-n grid until the 95%
+     * confidence interval of the mean is narrower than {@code epsilon}, or
+     * {@code maxTrials} trials have been run, or {@code maxMillis} milliseconds
+     * have passed, whichever comes first.
+     * <p>
+     * The trials are run in batches, spread over {@code parallelism} worker
+     * threads. After each batch the # of trials still needed is estimated from
+     * the current standard deviation; the next batch runs that many trials, but
+     * never more than have been run so far, so the time limit is overshot by at
+     * most the length of one batch. Without a time limit, the # of trials run and
+     * the statistics only depend on the seed, not on the parallelism.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param epsilon The width the 95% confidence interval must get below.
+     * @param maxTrials The most trials to run.
+     * @param maxMillis The most milliseconds to spend. {@code Long.MAX_VALUE}
+     *        means no limit.
+     * @param parallelism The # of worker threads to run the trials on. A value
+     *        of 1 runs all the trials on the calling thread.
+     * @param seed The master seed all the trials' random numbers derive from.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0}, {@code epsilon ≤ 0},
+     *         {@code maxTrials ≤ 0}, {@code maxMillis ≤ 0} or {@code parallelism ≤ 0}.
+     */
+    public PercolationStats(int n, double epsilon, int maxTrials, long maxMillis, int parallelism, long seed) {
+        ForkJoinPool pool;
+        TrialStatistics runStatistics;
+        long start, maxNanos;
+        int trials, batch;
+        double halfWidth, neededTrials;
+        
+        if (n <= 0 || maxTrials <= 0) {
+            throw new IllegalArgumentException("Must enter a value greater than "
+                                               + "0. You entered n = " 
+                                               + Integer.toString(n) + " and maxTrials = "
+                                               + Integer.toString(maxTrials) + ".");
+        }
+        if (!(epsilon > 0) || maxMillis <= 0) {
+            throw new IllegalArgumentException("Epsilon and maxMillis must be greater than 0. "
+                                               + "You entered epsilon = " + epsilon
+                                               + " and maxMillis = " + maxMillis + ".");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0. "
+                                               + "You entered "
+                                               + Integer.toString(parallelism) + ".");
+        }
+        totSites = n * n;
+        this.seed = seed;
         
+        start = System.nanoTime();
+        maxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+        try {
+            runStatistics = new TrialStatistics();
+            trials = 0;
+            batch = Math.min(maxTrials, Math.max(MIN_ADAPTIVE_TRIALS, parallelism));
+            while (true) {
+                runStatistics.merge(runBatch(pool, n, trials, trials + batch));
+                trials += batch;
+                
+                halfWidth = CONFIDENCE_95 * runStatistics.stddev() / Math.sqrt(trials);
+                if (2 * halfWidth < epsilon || trials == maxTrials
+                    || System.nanoTime() - start >= maxNanos) {
+                    break;
+                }
+                // The interval narrows with the square root of the # of trials.
+                neededTrials = trials * Math.pow(2 * halfWidth / epsilon, 2);
+                batch = (int) Math.min(neededTrials - trials + 1, trials);
+                batch = Math.max(batch, parallelism);
+                batch = Math.min(batch, maxTrials - trials);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        statistics = runStatistics;
+    }
+    
+    /**
+     * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive), either on
+     * the calling thread or on a pool of workers.
+     * 
+     * @param pool The pool to run the trials on, or {@code null} to run them on
+     *        the calling thread.
+     * @param n The size of dimension of the symmetric grid.
+     * @param lo The first trial to run.
+     * @param hi One past the last trial to run.
+     * 
+     * @return The statistics of the thresholds of these trials.
+     */
+    private TrialStatistics runBatch(ForkJoinPool pool, int n, int lo, int hi) {
+        return TrialRanges.run(pool, lo, hi, MAX_TASKS, (rangeLo, rangeHi) -> runRange(n, rangeLo, rangeHi),
+                               TrialStatistics::merge);
+    }
+    
+    /**
+     * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive), one after
+     * the other.
+     * 
+     * @param n The size of dimension of the symmetric grid.
+     * @param lo The first trial to run.
+     * @param hi One past the last trial to run.
+     * 
+     * @return The statistics of the thresholds of these trials.
+     */
+    private TrialStatistics runRange(int n, int lo, int hi) {
+        TrialStatistics rangeStatistics;
+        Percolation percolation;
+        int[] sites;
         
+        // One grid and one array of sites serve all the trials of the range, so
+        // the trials themselves don't allocate.
+        rangeStatistics = new TrialStatistics();
+        percolation = new Percolation(n);
+        sites = new int[totSites];
+        for (int i = lo; i < hi; i++) {
+            percolation.reset();
+            rangeStatistics.add(findPercolationThreshold(n, percolation, sites,
+                                                         SplittableRandomSource.forTrial(seed, i)));
+        }
+        return rangeStatistics;
     }
     
     /**
      * Find the percolation threshold for a grid of size {@code n}-by-{@code n}.
+     * <p>
+     * The sites are opened in a random order generated by a partial
+     * Fisher-Yates shuffle of {@code sites}: the i-th draw picks one of the
+     * sites not opened yet and swaps it into position i. Every draw opens a new
+     * site, so there is exactly one random number per open site, rather than
+     * repeatedly picking sites that are already open near the threshold. The
+     * threshold has the same distribution as picking random sites until a
+     * blocked one comes up.
+     * <p>
+     * The shuffle is done a block of {@code n} sites at a time, and each block is
+     * handed to {@code Percolation.openAll}, which stops at the exact site that
+     * made the system percolate. The draws past that site are thrown away, so
+     * the threshold is the same as when opening the sites one at a time.
      * 
      * @param n The size of dimension of the symmetric grid.
+     * @param percolation A grid of size {@code n}-by-{@code n} with all sites
+     *        blocked.
+     * @param sites Scratch space for the {@code n * n} site indexes.
+     * @param random The source of random numbers for this run.
      * 
      * @return The percolation threshold for this run.
      */
-    private double findPercolationThreshold(int n) {
-        Percolation percolation;
-        int row, col;
+    private double findPercolationThreshold(int n, Percolation percolation, int[] sites, RandomSource random) {
+        int i, j, site, blockStart, blockEnd;
         double percolationThreshold;
         
-        percolation = new Percolation(n);
-        totSites = n * n;
-        while (!percolation.percolates()) {
-            row = StdRandom.uniform(1, 1 + n);
-            col = StdRandom.uniform(1, 1 + n);
-            // System.out.println("row = " + row + "col = " + col);
-            percolation.open(row, col);
+        // Always shuffle from the same starting order so that the sites opened
+        // only depend on the random numbers of this trial.
+        for (i = 0; i < totSites; i++) {
+            sites[i] = i;
         }
+        blockStart = 0;
+        do {
+            blockEnd = Math.min(blockStart + n, totSites);
+            for (i = blockStart; i < blockEnd; i++) {
+                // Swap a random site from the unopened tail into position i.
+                j = i + random.uniform(totSites - i);
+                site = sites[j];
+                sites[j] = sites[i];
+                sites[i] = site;
+            }
+            site = percolation.openAll(sites, blockStart, blockEnd);
+            blockStart = blockEnd;
+        } while (site < 0);
         percolationThreshold = (double) percolation.numberOfOpenSites() / totSites;
         
         return percolationThreshold;
@@ -79,7 +302,7 @@ public class PercolationStats {
      * @return The mean of all the percolation computations for this grid.
      */
     public double mean() {
-        return StdStats.mean(trialResults);
+        return statistics.mean();
     }
     
     /**
@@ -88,7 +311,26 @@ public class PercolationStats {
      * @return The standard deviation of all the percolation computations for this grid.
      */
     public double stddev() {
-        return StdStats.stddev(trialResults);
+        return statistics.stddev();
+    }
+    
+    /**
+     * The # of trials the statistics are based on.
+     * 
+     * @return The # of trials run.
+     */
+    public int trials() {
+        return (int) statistics.count();
+    }
+    
+    /**
+     * Compute half the width of the 95% confidence interval, which shrinks with
+     * the square root of the # of trials.
+     * 
+     * @return Half the width of the 95% confidence interval.
+     */
+    private double halfWidth() {
+        return (CONFIDENCE_95 * stddev()) / Math.sqrt(statistics.count());
     }
     
     /**
@@ -97,11 +339,10 @@ public class PercolationStats {
      * @return Low endpoint of the 95% confidence interval.
      */
     public double confidenceLo() {
-        double percolationMean, percolationStdDev, lowEndpoint;
+        double percolationMean, lowEndpoint;
         
         percolationMean = mean();
-        percolationStdDev = stddev();
-        lowEndpoint = percolationMean - (1.96 * percolationStdDev) / Math.sqrt(totSites);
+        lowEndpoint = percolationMean - halfWidth();
         
         return lowEndpoint;
     }
@@ -112,30 +353,37 @@ public class PercolationStats {
      * @return High endpoint of the 95% confidence interval.
      */
     public double confidenceHi() {
-        double percolationMean, percolationStdDev, hiEndpoint;
+        double percolationMean, hiEndpoint;
         
         percolationMean = mean();
-        percolationStdDev = stddev();
-        hiEndpoint = percolationMean + (1.96 * percolationStdDev) / Math.sqrt(totSites);
+        hiEndpoint = percolationMean + halfWidth();
         
         return hiEndpoint;
     }
 
     public static void main(String[] args) {
-        int n, trials;
+        int n, trials, parallelism;
         PercolationStats percolationStats;
         
-        if (args.length == 2) {
+        if (args.length >= 2 && args.length <= 4) {
             n = Integer.parseInt(args[0]);
             trials = Integer.parseInt(args[1]);
+            parallelism = (args.length >= 3) ? Integer.parseInt(args[2]) : 1;
         } else {
             throw new IllegalArgumentException("You must run this program with two command-line " +
                                                "arguments - n and trials. The first argument (n) controls " +
                                                "the size of the n-by-n grid while trials represent " +
                                                "the # of independent computational experiments " +
-                                               "on this grid to find the percolation threshold.");
+                                               "on this grid to find the percolation threshold. " +
+                                               "An optional third argument sets the # of worker " +
+                                               "threads to run the trials on, and an optional " +
+                                               "fourth argument the seed to make the run repeatable.");
+        }
+        if (args.length == 4) {
+            percolationStats = new PercolationStats(n, trials, parallelism, Long.parseLong(args[3]));
+        } else {
+            percolationStats = new PercolationStats(n, trials, parallelism);
         }
-        percolationStats = new PercolationStats(n, trials);
         
         System.out.println("mean                    = " + percolationStats.mean());
         System.out.println("stddev                  = " + percolationStats.stddev());
@@ -0,0 +1,83 @@
+/******************************************************************************
+ * Run: Open PercolationStats.java and PercolationStatsTest.java in DrJava and
+ *      click Test.
+ *
+ *  Unit tests for percolation stats data type.
+ * 
+ ******************************************************************************/
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the PercolationStats class.
+ */
+public class PercolationStatsTest extends TestCase {
+    
+    /**
+     * Test the constructor with illegal args.
+     */
+    public void testPercolationStatsConstructorWithBadArg() {
+        PercolationStats percolationStats;
+        
+        try {
+            percolationStats = new PercolationStats(10, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Must enter a value greater than 0. You entered n = 10 and trails = 0.",
+                         e.getMessage());
+        }
+        try {
+            percolationStats = new PercolationStats(10, 10, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Parallelism must be greater than 0. You entered 0.", e.getMessage());
+        }
+    }
+    
+    /**
+     * Run the same seeded experiment serially and on several threads and verify
+     * that both give the same statistics.
+     */
+    public void testPercolationStatsSameSeedSameResults() {
+        PercolationStats serial, parallel;
+        
+        serial = new PercolationStats(20, 50, 1, 700);
+        parallel = new PercolationStats(20, 50, 3, 700);
+        assertEquals(serial.mean(), parallel.mean(), 0.0);
+        assertEquals(serial.stddev(), parallel.stddev(), 0.0);
+        assertEquals(serial.confidenceLo(), parallel.confidenceLo(), 0.0);
+        assertEquals(serial.confidenceHi(), parallel.confidenceHi(), 0.0);
+    }
+    
+    /**
+     * Verify that the threshold estimate is close to the known value of 0.593.
+     */
+    public void testPercolationStatsMean() {
+        PercolationStats percolationStats;
+        
+        percolationStats = new PercolationStats(50, 200, 2, 700);
+        assertEquals(0.593, percolationStats.mean(), 0.01);
+    }
+    
+    /**
+     * Ask for a precision and verify that the trials stop once the confidence
+     * interval is narrower than requested, well before the trial budget.
+     */
+    public void testPercolationStatsStopsAtPrecision() {
+        PercolationStats percolationStats;
+        
+        percolationStats = new PercolationStats(20, 0.01, 100000, Long.MAX_VALUE, 2, 700);
+        assertTrue(percolationStats.confidenceHi() - percolationStats.confidenceLo() < 0.01);
+        assertTrue(percolationStats.trials() < 100000);
+    }
+    
+    /**
+     * Ask for an unreachable precision and verify that exactly the budgeted
+     * # of trials is run.
+     */
+    public void testPercolationStatsStopsAtTrialBudget() {
+        PercolationStats percolationStats;
+        
+        percolationStats = new PercolationStats(20, 1e-9, 50, Long.MAX_VALUE, 2, 700);
+        assertEquals(50, percolationStats.trials());
+    }
+}
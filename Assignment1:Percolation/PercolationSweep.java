@@ -0,0 +1,390 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Percolation.java RandomSource.java
+ *                javac-algs4 SplittableRandomSource.java TrialRanges.java
+ *                javac-algs4 PercolationSweep.java
+ *  Execution:    java-algs4 PercolationSweep 100 1000
+ *                java-algs4 PercolationSweep 100 1000 8 700
+ *
+ *  Percolation probability and largest cluster as functions of the
+ *  probability of a site being open, by the Newman-Ziff algorithm.
+ *
+ ******************************************************************************/
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code PercolationSweep} class is a <em>data type</em> that estimates,
+ * for every probability {@code p} of a site being open, the probability that
+ * an n-by-n grid percolates and the expected fraction of the sites in its
+ * largest cluster of open sites.
+ * <p>
+ * Rather than running separate experiments for each {@code p}, it follows
+ * Newman and Ziff: each trial opens all the {@code n * n} sites one at a time
+ * in a random order, and after every open records whether the grid percolates
+ * and the size of its largest cluster. Averaging over the trials gives the
+ * observables with exactly {@code k} open sites, for every {@code k}. A grid
+ * where each site is open with probability {@code p} has {@code k} open sites
+ * with binomial probability, so the observables at {@code p} are the average
+ * of those at each {@code k} weighted by the binomial distribution. A whole
+ * curve costs one sweep per trial, about the cost of finding the threshold.
+ * <p>
+ * The trials are spread over workers with {@code TrialRanges} and seeded per
+ * trial the same way as in {@code PercolationStats}. The counts of the trials
+ * are integers, so runs with the same seed give the same results whatever the
+ * parallelism. Each range of trials keeps its counts in two arrays of
+ * {@code n * n + 1} {@code long}s until they are merged, so the trials are
+ * split into only as many ranges as there are workers, not the many small
+ * ranges of {@code PercolationStats}.
+ * 
+ * @see <a href="https://arxiv.org/abs/cond-mat/0101295">Newman and Ziff, A fast
+ *      Monte Carlo algorithm for site or bond percolation</a>
+ */
+public class PercolationSweep {
+    // Binomial weights this much smaller than the largest one are ignored.
+    private static final double MIN_WEIGHT = 1e-16;
+    private final int totSites;
+    private final int trials;
+    private final long seed;
+    // Fraction of the trials that percolate with k open sites.
+    private final double[] percolationProbabilities;
+    // Mean fraction of the sites in the largest cluster with k open sites.
+    private final double[] largestClusterFractions;
+    
+    /**
+     * Sweep an n-by-n grid {@code trials} # of times.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param trials The # of sweeps to average over.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0} or {@code trials ≤ 0}.
+     */
+    public PercolationSweep(int n, int trials) {
+        this(n, trials, 1);
+    }
+    
+    /**
+     * Sweep an n-by-n grid {@code trials} # of times using up to
+     * {@code parallelism} worker threads.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param trials The # of sweeps to average over.
+     * @param parallelism The # of worker threads to run the trials on. A value
+     *        of 1 runs all the trials on the calling thread.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0}, {@code trials ≤ 0}
+     *         or {@code parallelism ≤ 0}.
+     */
+    public PercolationSweep(int n, int trials, int parallelism) {
+        this(n, trials, parallelism, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Sweep an n-by-n grid {@code trials} # of times using up to
+     * {@code parallelism} worker threads. The order the sites are opened in
+     * each trial is picked from random numbers derived from {@code seed}.
+     * 
+     * @param n The size of the symmetric grid's single dimension.
+     * @param trials The # of sweeps to average over.
+     * @param parallelism The # of worker threads to run the trials on. A value
+     *        of 1 runs all the trials on the calling thread.
+     * @param seed The master seed all the trials' random numbers derive from.
+     * 
+     * @throws IllegalArgumentException if either {@code n ≤ 0}, {@code trials ≤ 0}
+     *         or {@code parallelism ≤ 0}.
+     */
+    public PercolationSweep(int n, int trials, int parallelism, long seed) {
+        ForkJoinPool pool;
+        SweepCounts counts;
+        long percolatingTrials;
+        
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("Must enter a value greater than "
+                                               + "0. You entered n = "
+                                               + Integer.toString(n) + " and trials = "
+                                               + Integer.toString(trials) + ".");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0. "
+                                               + "You entered "
+                                               + Integer.toString(parallelism) + ".");
+        }
+        totSites = n * n;
+        this.trials = trials;
+        this.seed = seed;
+        
+        // One range per worker: at n = 1000 the counts of a range take 16 MB.
+        pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+        try {
+            counts = TrialRanges.run(pool, 0, trials, parallelism, (lo, hi) -> runRange(n, lo, hi),
+                                     SweepCounts::merge);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        
+        percolationProbabilities = new double[totSites + 1];
+        largestClusterFractions = new double[totSites + 1];
+        percolatingTrials = 0;
+        for (int k = 0; k <= totSites; k++) {
+            // A trial that percolates with k open sites still does with more.
+            percolatingTrials += counts.firstPercolating[k];
+            percolationProbabilities[k] = (double) percolatingTrials / trials;
+            largestClusterFractions[k] = (double) counts.largestClusterSums[k] / trials / totSites;
+        }
+    }
+    
+    /**
+     * The {@code SweepCounts} class holds the totals of a range of trials for
+     * every # of open sites {@code k}.
+     */
+    private static class SweepCounts {
+        // # of trials that started to percolate with k open sites.
+        private final long[] firstPercolating;
+        // Sum over the trials of the size of the largest cluster with k open sites.
+        private final long[] largestClusterSums;
+        
+        SweepCounts(int totSites) {
+            firstPercolating = new long[totSites + 1];
+            largestClusterSums = new long[totSites + 1];
+        }
+        
+        void merge(SweepCounts that) {
+            for (int k = 0; k < firstPercolating.length; k++) {
+                firstPercolating[k] += that.firstPercolating[k];
+                largestClusterSums[k] += that.largestClusterSums[k];
+            }
+        }
+    }
+    
+    /**
+     * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive), one after
+     * the other, on a single grid.
+     * 
+     * @param n The size of dimension of the symmetric grid.
+     * @param lo The first trial to run.
+     * @param hi One past the last trial to run.
+     * 
+     * @return The totals of these trials.
+     */
+    private SweepCounts runRange(int n, int lo, int hi) {
+        SweepCounts counts;
+        Percolation percolation;
+        int[] sites;
+        
+        counts = new SweepCounts(totSites);
+        percolation = new Percolation(n);
+        sites = new int[totSites];
+        for (int i = lo; i < hi; i++) {
+            percolation.reset();
+            sweep(percolation, sites, SplittableRandomSource.forTrial(seed, i), counts);
+        }
+        return counts;
+    }
+    
+    /**
+     * Open all the sites of a grid in a random order, adding the observables
+     * after each open to {@code counts}.
+     * 
+     * @param percolation A grid with all sites blocked.
+     * @param sites Scratch space for the {@code n * n} site indexes.
+     * @param random The source of random numbers for this trial.
+     * @param counts The totals to add this trial to.
+     */
+    private void sweep(Percolation percolation, int[] sites, RandomSource random, SweepCounts counts) {
+        int j, site;
+        boolean percolated;
+        
+        for (int k = 0; k < totSites; k++) {
+            sites[k] = k;
+        }
+        percolated = false;
+        for (int k = 0; k < totSites; k++) {
+            // Swap a random site from the unopened tail into position k.
+            j = k + random.uniform(totSites - k);
+            site = sites[j];
+            sites[j] = sites[k];
+            sites[k] = site;
+            percolation.openSite(site);
+            
+            counts.largestClusterSums[k + 1] += percolation.largestClusterSize();
+            if (!percolated && percolation.percolates()) {
+                counts.firstPercolating[k + 1]++;
+                percolated = true;
+            }
+        }
+    }
+    
+    /**
+     * Average an observable known for every # of open sites {@code k} over the
+     * binomial distribution of {@code k} when each site is open with
+     * probability {@code p}.
+     * <p>
+     * The weights are computed relative to the most likely {@code k}, moving
+     * outwards with the ratio of consecutive binomial probabilities, and
+     * stop once they become negligible. This needs no factorials, which would
+     * overflow, and only visits the {@code O(n)} values of {@code k} around
+     * {@code p * n * n} that matter.
+     * 
+     * @param observables The observable for {@code k = 0} to {@code n * n}.
+     * @param p The probability of a site being open.
+     * 
+     * @return The observable at {@code p}.
+     */
+    private double convolve(double[] observables, double p) {
+        int mode;
+        double ratio, weight, totalWeight, total;
+        
+        if (p == 0.0) {
+            return observables[0];
+        }
+        if (p == 1.0) {
+            return observables[totSites];
+        }
+        mode = Math.min((int) ((totSites + 1) * p), totSites);
+        ratio = p / (1 - p);
+        totalWeight = 1.0;
+        total = observables[mode];
+        weight = 1.0;
+        for (int k = mode; k < totSites && weight >= MIN_WEIGHT; k++) {
+            // B(k + 1) / B(k) = (N - k) / (k + 1) * p / (1 - p).
+            weight *= ratio * (totSites - k) / (k + 1);
+            totalWeight += weight;
+            total += weight * observables[k + 1];
+        }
+        weight = 1.0;
+        for (int k = mode; k > 0 && weight >= MIN_WEIGHT; k--) {
+            // B(k - 1) / B(k) = k / (N - k + 1) * (1 - p) / p.
+            weight *= k / (ratio * (totSites - k + 1));
+            totalWeight += weight;
+            total += weight * observables[k - 1];
+        }
+        
+        return total / totalWeight;
+    }
+    
+    /**
+     * Check that {@code p} is a probability.
+     * 
+     * @param p The value to check.
+     * @throws IllegalArgumentException if {@code p} is not in {@code [0, 1]}.
+     */
+    private static void validateProbability(double p) {
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1. "
+                                               + "You entered " + p + ".");
+        }
+    }
+    
+    /**
+     * Check that {@code k} is a # of open sites of the grid.
+     * 
+     * @param k The value to check.
+     * @throws IndexOutOfBoundsException if {@code k} is not in {@code [0, n * n]}.
+     */
+    private void validateOpenSites(int k) {
+        if (k < 0 || k > totSites) {
+            throw new IndexOutOfBoundsException("# of open sites " + k
+                                                + " out of bounds (0 - "
+                                                + totSites + ").");
+        }
+    }
+    
+    /**
+     * The # of trials the estimates are based on.
+     * 
+     * @return The # of sweeps run.
+     */
+    public int trials() {
+        return trials;
+    }
+    
+    /**
+     * Estimate the probability that the grid percolates with exactly {@code k}
+     * open sites, picked uniformly at random.
+     * 
+     * @param k The # of open sites.
+     * 
+     * @return The fraction of the trials that percolate with {@code k} open sites.
+     * @throws IndexOutOfBoundsException if {@code k} is not in {@code [0, n * n]}.
+     */
+    public double percolationProbabilityAtOpenSites(int k) {
+        validateOpenSites(k);
+        return percolationProbabilities[k];
+    }
+    
+    /**
+     * Estimate the expected fraction of the sites in the largest cluster with
+     * exactly {@code k} open sites, picked uniformly at random.
+     * 
+     * @param k The # of open sites.
+     * 
+     * @return The mean size of the largest cluster over {@code n * n}.
+     * @throws IndexOutOfBoundsException if {@code k} is not in {@code [0, n * n]}.
+     */
+    public double largestClusterFractionAtOpenSites(int k) {
+        validateOpenSites(k);
+        return largestClusterFractions[k];
+    }
+    
+    /**
+     * Estimate the probability that the grid percolates when each site is open
+     * with probability {@code p}.
+     * 
+     * @param p The probability of a site being open.
+     * 
+     * @return The probability of percolating.
+     * @throws IllegalArgumentException if {@code p} is not in {@code [0, 1]}.
+     */
+    public double percolationProbability(double p) {
+        validateProbability(p);
+        return convolve(percolationProbabilities, p);
+    }
+    
+    /**
+     * Estimate the expected fraction of the sites in the largest cluster when
+     * each site is open with probability {@code p}.
+     * 
+     * @param p The probability of a site being open.
+     * 
+     * @return The mean size of the largest cluster over {@code n * n}.
+     * @throws IllegalArgumentException if {@code p} is not in {@code [0, 1]}.
+     */
+    public double largestClusterFraction(double p) {
+        validateProbability(p);
+        return convolve(largestClusterFractions, p);
+    }
+    
+    public static void main(String[] args) {
+        int n, trials, parallelism;
+        PercolationSweep sweep;
+        double p;
+        
+        if (args.length >= 2 && args.length <= 4) {
+            n = Integer.parseInt(args[0]);
+            trials = Integer.parseInt(args[1]);
+            parallelism = (args.length >= 3) ? Integer.parseInt(args[2]) : 1;
+        } else {
+            throw new IllegalArgumentException("You must run this program with two command-line " +
+                                               "arguments - n and trials. The first argument (n) controls " +
+                                               "the size of the n-by-n grid while trials represent " +
+                                               "the # of sweeps to average over. An optional third " +
+                                               "argument sets the # of worker threads to run the " +
+                                               "trials on, and an optional fourth argument the seed " +
+                                               "to make the run repeatable.");
+        }
+        if (args.length == 4) {
+            sweep = new PercolationSweep(n, trials, parallelism, Long.parseLong(args[3]));
+        } else {
+            sweep = new PercolationSweep(n, trials, parallelism);
+        }
+        
+        System.out.println("p       P(percolates)  largest cluster");
+        for (int i = 0; i <= 100; i++) {
+            p = i / 100.0;
+            System.out.printf("%.2f    %.6f       %.6f%n", p, sweep.percolationProbability(p),
+                              sweep.largestClusterFraction(p));
+        }
+    }
+}
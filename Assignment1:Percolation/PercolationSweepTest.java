@@ -0,0 +1,92 @@
+/******************************************************************************
+ * Run: Open PercolationSweep.java and PercolationSweepTest.java in DrJava and
+ *      click Test.
+ *
+ *  Unit tests for percolation sweep data type.
+ * 
+ ******************************************************************************/
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the PercolationSweep class.
+ */
+public class PercolationSweepTest extends TestCase {
+    
+    /**
+     * Test the constructor and the estimates with illegal args.
+     */
+    public void testPercolationSweepWithBadArg() {
+        PercolationSweep percolationSweep;
+        
+        try {
+            percolationSweep = new PercolationSweep(10, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Must enter a value greater than 0. You entered n = 10 and trials = 0.",
+                         e.getMessage());
+        }
+        percolationSweep = new PercolationSweep(2, 1, 1, 700);
+        try {
+            percolationSweep.percolationProbability(1.5);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Probability must be between 0 and 1. You entered 1.5.", e.getMessage());
+        }
+        try {
+            percolationSweep.percolationProbabilityAtOpenSites(5);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("# of open sites 5 out of bounds (0 - 4).", e.getMessage());
+        }
+    }
+    
+    /**
+     * A grid of size 1 percolates exactly when its only site is open, so both
+     * curves are the probability of a site being open.
+     */
+    public void testPercolationSweepSingleSite() {
+        PercolationSweep percolationSweep;
+        
+        percolationSweep = new PercolationSweep(1, 3, 1, 700);
+        assertEquals(0.0, percolationSweep.percolationProbabilityAtOpenSites(0), 0.0);
+        assertEquals(1.0, percolationSweep.percolationProbabilityAtOpenSites(1), 0.0);
+        for (double p = 0.0; p <= 1.0; p += 0.125) {
+            assertEquals(p, percolationSweep.percolationProbability(p), 1e-12);
+            assertEquals(p, percolationSweep.largestClusterFraction(p), 1e-12);
+        }
+    }
+    
+    /**
+     * Run the same seeded sweep serially and on several threads and verify
+     * that both give the same curves.
+     */
+    public void testPercolationSweepSameSeedSameResults() {
+        PercolationSweep serial, parallel;
+        
+        serial = new PercolationSweep(10, 50, 1, 700);
+        parallel = new PercolationSweep(10, 50, 3, 700);
+        for (int k = 0; k <= 100; k++) {
+            assertEquals(serial.percolationProbabilityAtOpenSites(k),
+                         parallel.percolationProbabilityAtOpenSites(k), 0.0);
+            assertEquals(serial.largestClusterFractionAtOpenSites(k),
+                         parallel.largestClusterFractionAtOpenSites(k), 0.0);
+        }
+    }
+    
+    /**
+     * Verify that the percolation probability rises from 0 to 1 around the
+     * known threshold of 0.593, and that every site is in the largest cluster
+     * once all of them are open.
+     */
+    public void testPercolationSweepCurve() {
+        PercolationSweep percolationSweep;
+        
+        percolationSweep = new PercolationSweep(50, 100, 2, 700);
+        assertEquals(0.0, percolationSweep.percolationProbability(0.4), 0.01);
+        assertEquals(1.0, percolationSweep.percolationProbability(0.8), 0.01);
+        assertTrue(percolationSweep.percolationProbability(0.55)
+                   < percolationSweep.percolationProbability(0.65));
+        assertEquals(1.0, percolationSweep.largestClusterFractionAtOpenSites(2500), 0.0);
+        assertEquals(1.0, percolationSweep.percolationProbabilityAtOpenSites(2500), 0.0);
+    }
+}
@@ -80,6 +80,156 @@ public class PercolationTest extends TestCase {
         assertTrue(percolation.percolates());
     }
     
+    /**
+     * Open a column through a grid of size 3 so that it percolates and verify
+     * that an open site in the bottom row that isn't connected to the column
+     * isn't full (no backwash).
+     */
+    public void testPercolationNoBackwash() {
+        Percolation percolation;
+        
+        percolation = new Percolation(3);
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        percolation.open(3, 3);
+        assertFalse(percolation.percolates());
+        percolation.open(3, 1);
+        assertTrue(percolation.percolates());
+        assertTrue(percolation.isFull(3, 1));
+        assertFalse(percolation.isFull(3, 3));
+        percolation.open(3, 2);
+        assertTrue(percolation.isFull(3, 3));
+    }
+    
+    /**
+     * Open sites until a grid of size 2 percolates, reset it and verify that
+     * it is blocked again and behaves like a new grid.
+     */
+    public void testPercolationReset() {
+        Percolation percolation;
+        
+        percolation = new Percolation(2);
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        assertTrue(percolation.percolates());
+        percolation.reset();
+        assertFalse(percolation.percolates());
+        assertEquals(0, percolation.numberOfOpenSites());
+        assertFalse(percolation.isOpen(1, 1));
+        assertFalse(percolation.isFull(2, 1));
+        percolation.open(1, 1);
+        percolation.open(2, 2);
+        assertFalse(percolation.percolates());
+        assertFalse(percolation.isFull(2, 2));
+        percolation.open(1, 2);
+        assertTrue(percolation.percolates());
+    }
+    
+    /**
+     * Open a sequence of sites on a grid of size 3 with {@code openAll} and
+     * verify that it stops at the site that makes the system percolate.
+     */
+    public void testPercolationOpenAll() {
+        Percolation percolation;
+        int[] sites = {1, 4, 4, 8, 7, 2};
+        
+        percolation = new Percolation(3);
+        assertEquals(-1, percolation.openAll(sites, 0, 3));
+        assertEquals(2, percolation.numberOfOpenSites());
+        assertFalse(percolation.percolates());
+        assertEquals(4, percolation.openAll(sites, 3, 6));
+        assertTrue(percolation.percolates());
+        assertTrue(percolation.isFull(3, 2));
+        // The site after the percolating one is not opened.
+        assertFalse(percolation.isOpen(1, 3));
+        assertEquals(4, percolation.numberOfOpenSites());
+        // Once the system percolates, the rest of the sites are just opened.
+        assertEquals(-1, percolation.openAll(sites, 5, 6));
+        assertTrue(percolation.isOpen(1, 3));
+    }
+    
+    /**
+     * Test the {@code openAll} method with illegal args.
+     */
+    public void testPercolationOpenAllWithOutOfBound() {
+        Percolation percolation;
+        int[] sites = {0, 9};
+        
+        percolation = new Percolation(3);
+        try {
+            percolation.openAll(sites, 0, 3);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals(0, percolation.numberOfOpenSites());
+        }
+        try {
+            percolation.openAll(sites, 0, 2);
+            fail();
+        } catch (final IndexOutOfBoundsException e) {
+            assertTrue(percolation.isOpen(1, 1));
+        }
+    }
+    
+    /**
+     * Open sites on a grid of size 3 and verify the size of the largest
+     * cluster as clusters appear and merge.
+     */
+    public void testPercolationLargestClusterSize() {
+        Percolation percolation;
+        
+        percolation = new Percolation(3);
+        assertEquals(0, percolation.largestClusterSize());
+        percolation.open(1, 1);
+        percolation.open(1, 3);
+        percolation.open(3, 3);
+        assertEquals(1, percolation.largestClusterSize());
+        percolation.open(2, 3);
+        assertEquals(3, percolation.largestClusterSize());
+        percolation.open(1, 2);
+        assertEquals(5, percolation.largestClusterSize());
+        percolation.reset();
+        assertEquals(0, percolation.largestClusterSize());
+    }
+    
+    /**
+     * Take a snapshot of a grid of size 3 and verify that it agrees with
+     * {@code isOpen} and {@code isFull} for every site, including a site that
+     * is only connected to the top through the bottom row (no backwash).
+     */
+    public void testPercolationSnapshot() {
+        Percolation percolation;
+        byte[] states;
+        byte expected;
+        
+        percolation = new Percolation(3);
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        percolation.open(3, 1);
+        percolation.open(3, 3);
+        percolation.open(2, 3);
+        states = new byte[9];
+        percolation.snapshot(states);
+        for (int row = 1; row <= 3; row++) {
+            for (int col = 1; col <= 3; col++) {
+                if (percolation.isFull(row, col)) {
+                    expected = Percolation.FULL;
+                } else if (percolation.isOpen(row, col)) {
+                    expected = Percolation.OPEN;
+                } else {
+                    expected = Percolation.BLOCKED;
+                }
+                assertEquals(expected, states[(row - 1) * 3 + (col - 1)]);
+            }
+        }
+        assertEquals(Percolation.OPEN, states[8]);
+        try {
+            percolation.snapshot(new byte[8]);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Must pass an array of at least 9 states. You passed 8.", e.getMessage());
+        }
+    }
+    
     /**
      * Test the {@code open} method with illegal args.
      */
@@ -90,7 +240,7 @@ public class PercolationTest extends TestCase {
         try {
             percolation.open(2, 0);
             fail();
-        } catch (final IndexOutOfBoundsException e) {
+        } catch (final IllegalArgumentException e) {
             assertEquals("row/column (2/0) out of bounds (1 - 2).", e.getMessage());
         }
     }
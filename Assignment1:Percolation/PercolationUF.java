@@ -0,0 +1,191 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 PercolationUF.java
+ *  Execution:    No main method.
+ *
+ *  Union-find data type specialized for the percolation system.
+ * 
+ ******************************************************************************/
+
+/**
+ * The {@code PercolationUF} class is a weighted quick union-find
+ * <em>data type</em> tuned for {@code Percolation}.
+ * <p>
+ * Unlike {@code edu.princeton.cs.algs4.WeightedQuickUnionUF}, the parent and
+ * the size of each element are kept next to each other in a single
+ * {@code int[]} (the parent of {@code i} at {@code 2 * i} and the size of the
+ * tree rooted at {@code i} at {@code 2 * i + 1}), so following a parent link
+ * and reading the size of the root touch the same cache line. {@code find}
+ * uses path halving, making every other node on the path point to its
+ * grandparent, and {@code union} links the root of the smaller tree below the
+ * root of the larger one. Together they keep the trees almost flat.
+ * <p>
+ * Each set also carries a few status bits, such as {@link #TOP} and
+ * {@link #BOTTOM}, which are combined when two sets are merged. A root is
+ * marked by a negative parent entry holding the complement of its status bits,
+ * so the bits take no extra memory. {@code Percolation} uses them to remember
+ * which open clusters touch the top and the bottom row instead of connecting
+ * every open top and bottom site to shared virtual sites.
+ * <p>
+ * The class is final and the indexes are not validated; {@code Percolation}
+ * already checks them before calling in.
+ */
+public final class PercolationUF {
+    /**
+     * Status bit of a set connected to the top row.
+     */
+    public static final int TOP = 1;
+    
+    /**
+     * Status bit of a set connected to the bottom row.
+     */
+    public static final int BOTTOM = 2;
+    
+    // Largest # of elements whose interleaved array still fits in a Java array.
+    private static final int MAX_ELEMENTS = (Integer.MAX_VALUE - 8) / 2;
+    private final int[] nodes;
+    
+    /**
+     * Initialize an empty union-find data type with {@code n} elements, each
+     * in its own set with no status bits set.
+     * 
+     * @param n The # of elements.
+     * @throws IllegalArgumentException if {@code n < 0} or {@code n} is too
+     *         large for the elements to fit in one array.
+     */
+    public PercolationUF(int n) {
+        if (n < 0 || n > MAX_ELEMENTS) {
+            throw new IllegalArgumentException("# of elements must be between 0 and "
+                                               + MAX_ELEMENTS + ". You entered "
+                                               + Integer.toString(n) + ".");
+        }
+        nodes = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            nodes[2 * i] = ~0;
+            nodes[2 * i + 1] = 1;
+        }
+    }
+    
+    /**
+     * Return the root of the set containing {@code p}.
+     * 
+     * @param p An element.
+     * 
+     * @return The root of the set containing {@code p}.
+     */
+    public int find(int p) {
+        int parent, grandParent;
+        
+        parent = nodes[2 * p];
+        while (parent >= 0) {
+            // Path halving - point p at its grandparent (unless the parent is
+            // the root) and move up there.
+            grandParent = nodes[2 * parent];
+            if (grandParent < 0) {
+                return parent;
+            }
+            nodes[2 * p] = grandParent;
+            p = grandParent;
+            parent = nodes[2 * p];
+        }
+        return p;
+    }
+    
+    /**
+     * Put {@code p} back in a set of its own, with no status bits set. The
+     * caller must reset every element of {@code p}'s set the same way, or
+     * elements pointing at {@code p} would end up in its new set.
+     * 
+     * @param p An element.
+     */
+    public void reset(int p) {
+        nodes[2 * p] = ~0;
+        nodes[2 * p + 1] = 1;
+    }
+    
+    /**
+     * Check if {@code p} and {@code q} are in the same set.
+     * 
+     * @param p One element.
+     * @param q The other element.
+     * 
+     * @return {@code True} if the two elements are in the same set,
+     *         {@code false} otherwise.
+     */
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+    
+    /**
+     * Merge the set containing {@code p} with the set containing {@code q}.
+     * The merged set has the status bits of both sets.
+     * 
+     * @param p One element.
+     * @param q The other element.
+     * 
+     * @return The root of the merged set.
+     */
+    public int union(int p, int q) {
+        int rootP, rootQ, sizeP, sizeQ, status;
+        
+        rootP = find(p);
+        rootQ = find(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+        sizeP = nodes[2 * rootP + 1];
+        sizeQ = nodes[2 * rootQ + 1];
+        // Both root entries hold complemented bits, so AND-ing them ORs the bits.
+        status = nodes[2 * rootP] & nodes[2 * rootQ];
+        // Make the root of the smaller tree point to the root of the larger one.
+        if (sizeP < sizeQ) {
+            nodes[2 * rootP] = rootQ;
+            nodes[2 * rootQ] = status;
+            nodes[2 * rootQ + 1] = sizeP + sizeQ;
+            return rootQ;
+        } else {
+            nodes[2 * rootQ] = rootP;
+            nodes[2 * rootP] = status;
+            nodes[2 * rootP + 1] = sizeP + sizeQ;
+            return rootP;
+        }
+    }
+    
+    /**
+     * Return the status bits of the set containing {@code p}.
+     * 
+     * @param p An element.
+     * 
+     * @return The status bits of the set, a combination of {@link #TOP} and
+     *         {@link #BOTTOM}.
+     */
+    public int status(int p) {
+        return ~nodes[2 * find(p)];
+    }
+    
+    /**
+     * Set additional status bits on the set containing {@code p}.
+     * 
+     * @param p An element.
+     * @param status The status bits to set.
+     * 
+     * @return The status bits of the set after setting the new ones.
+     */
+    public int addStatus(int p, int status) {
+        int root;
+        
+        root = find(p);
+        nodes[2 * root] &= ~status;
+        return ~nodes[2 * root];
+    }
+    
+    /**
+     * Return the # of elements in the set containing {@code p}.
+     * 
+     * @param p An element.
+     * 
+     * @return The # of elements in the set containing {@code p}.
+     */
+    public int size(int p) {
+        return nodes[2 * find(p) + 1];
+    }
+}
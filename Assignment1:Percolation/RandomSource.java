@@ -0,0 +1,30 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 RandomSource.java
+ *  Execution:    No main method.
+ *
+ *  Source of random numbers for the percolation trials.
+ * 
+ ******************************************************************************/
+
+/**
+ * The {@code RandomSource} interface is the source of random numbers used by
+ * a single percolation trial.
+ * <p>
+ * A trial only ever draws from its own {@code RandomSource}, so an
+ * implementation doesn't need to be thread safe and can be as cheap as a
+ * couple of arithmetic operations per draw.
+ * 
+ * @see SplittableRandomSource
+ */
+public interface RandomSource {
+    
+    /**
+     * Return a random integer uniformly in [0, n).
+     * 
+     * @param n The # of possible values.
+     * 
+     * @return A random integer between 0 (inclusive) and {@code n} (exclusive).
+     * @throws IllegalArgumentException if {@code n ≤ 0}.
+     */
+    int uniform(int n);
+}
@@ -0,0 +1,71 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 RandomSource.java
+ *                javac-algs4 SplittableRandomSource.java
+ *  Execution:    No main method.
+ *
+ *  Seedable, splittable source of random numbers for percolation trials.
+ * 
+ ******************************************************************************/
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code SplittableRandomSource} class is a {@code RandomSource} backed by
+ * a {@code java.util.SplittableRandom}.
+ * <p>
+ * The stream for a trial is derived only from a master seed and the trial's
+ * index (see {@link #forTrial(long, long)}). Each trial therefore sees the same
+ * random numbers no matter which thread runs it or how many threads there are,
+ * and no two threads ever share a generator.
+ */
+public class SplittableRandomSource implements RandomSource {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private final SplittableRandom random;
+    
+    /**
+     * Create a source of random numbers seeded with {@code seed}.
+     * 
+     * @param seed The initial seed.
+     */
+    public SplittableRandomSource(long seed) {
+        random = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Create the source of random numbers for a single trial.
+     * 
+     * @param masterSeed The seed of the whole run.
+     * @param trial The index of the trial in the run.
+     * 
+     * @return The source of random numbers for this trial.
+     */
+    public static SplittableRandomSource forTrial(long masterSeed, long trial) {
+        return new SplittableRandomSource(mix64(masterSeed + (trial + 1) * GOLDEN_GAMMA));
+    }
+    
+    /**
+     * Scramble the bits of {@code z} so that consecutive trial indexes give
+     * unrelated seeds (the finalizer of the SplitMix64 generator).
+     * 
+     * @param z The value to scramble.
+     * 
+     * @return The scrambled value.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Return a random integer uniformly in [0, n).
+     * 
+     * @param n The # of possible values.
+     * 
+     * @return A random integer between 0 (inclusive) and {@code n} (exclusive).
+     * @throws IllegalArgumentException if {@code n ≤ 0}.
+     */
+    public int uniform(int n) {
+        return random.nextInt(n);
+    }
+}
@@ -0,0 +1,144 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Lattice.java SquareLattice.java
+ *  Execution:    No main method.
+ *
+ *  Square, cubic or hypercubic lattice with nearest-neighbor connectivity.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code SquareLattice} class is a {@code Lattice} of any # of dimensions
+ * where each site is connected to the two sites next to it along each axis
+ * (the von Neumann neighborhood): 4 neighbors on a grid, as in
+ * {@code Percolation}, and 6 in a cube.
+ * <p>
+ * Grids and cubes, by far the most common, find the coordinates of a site
+ * with one and two divisions and write the neighbors from fixed offsets.
+ * Other # of dimensions loop over the axes with a division and a remainder
+ * per axis.
+ */
+public class SquareLattice extends Lattice {
+    
+    /**
+     * Initialize a lattice with the given extent along each axis.
+     * 
+     * @param extents The # of sites along each axis.
+     * @throws IllegalArgumentException if there are no extents, an extent is
+     *         not positive, or there are too many sites.
+     */
+    public SquareLattice(long... extents) {
+        super(extents);
+    }
+    
+    /**
+     * The most neighbors a site can have.
+     * 
+     * @return Twice the # of dimensions.
+     */
+    public int maxNeighbors() {
+        return 2 * extents.length;
+    }
+    
+    /**
+     * Write the sites next to {@code site} along each axis into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    public int neighbors(long site, long[] out) {
+        long coordinate;
+        int count;
+        
+        if (extents.length == 2) {
+            return neighbors2d(site, out);
+        }
+        if (extents.length == 3) {
+            return neighbors3d(site, out);
+        }
+        count = 0;
+        for (int axis = 0; axis < extents.length; axis++) {
+            coordinate = (site / strides[axis]) % extents[axis];
+            if (coordinate > 0) {
+                out[count++] = site - strides[axis];
+            }
+            if (coordinate < extents[axis] - 1) {
+                out[count++] = site + strides[axis];
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Write the neighbors of a site of a grid into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    private int neighbors2d(long site, long[] out) {
+        long rows, cols, row, col;
+        int count;
+        
+        rows = extents[0];
+        cols = extents[1];
+        row = site / cols;
+        col = site - row * cols;
+        count = 0;
+        if (row > 0) {
+            out[count++] = site - cols;
+        }
+        if (row < rows - 1) {
+            out[count++] = site + cols;
+        }
+        if (col > 0) {
+            out[count++] = site - 1;
+        }
+        if (col < cols - 1) {
+            out[count++] = site + 1;
+        }
+        return count;
+    }
+    
+    /**
+     * Write the neighbors of a site of a cube into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    private int neighbors3d(long site, long[] out) {
+        long layer, rest, row, col, layerSize, cols;
+        int count;
+        
+        layerSize = strides[0];
+        cols = extents[2];
+        layer = site / layerSize;
+        rest = site - layer * layerSize;
+        row = rest / cols;
+        col = rest - row * cols;
+        count = 0;
+        if (layer > 0) {
+            out[count++] = site - layerSize;
+        }
+        if (layer < extents[0] - 1) {
+            out[count++] = site + layerSize;
+        }
+        if (row > 0) {
+            out[count++] = site - cols;
+        }
+        if (row < extents[1] - 1) {
+            out[count++] = site + cols;
+        }
+        if (col > 0) {
+            out[count++] = site - 1;
+        }
+        if (col < cols - 1) {
+            out[count++] = site + 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 TrialRanges.java
+ *  Execution:    No main method.
+ * 
+ *  Runs a range of independent trials, serially or on a fork/join pool.
+ * 
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@code TrialRanges} class runs the independent trials {@code lo} to
+ * {@code hi}, either on the calling thread or on a {@code ForkJoinPool}.
+ * <p>
+ * The range of trials is split in half recursively until it is cut into
+ * {@code maxRanges} ranges of nearly the same length, or one range per trial
+ * if there are fewer trials. A {@code Runner} runs the trials of each
+ * range one after the other and totals them in a result of the range's own;
+ * the results of the two halves of a range are then merged into the first
+ * one. The ranges are split the same way whatever the pool (and when running
+ * serially), so the merges happen in the same order too.
+ * <p>
+ * The result of a range stays alive until it is merged, so up to
+ * {@code maxRanges} results can be alive at once. Callers whose results are
+ * large should keep {@code maxRanges} close to the # of workers; more ranges
+ * only help the workers balance their load.
+ */
+public final class TrialRanges {
+    
+    /**
+     * The {@code Runner} interface runs a range of trials.
+     * 
+     * @param <T> The type of the totals of a range.
+     */
+    public interface Runner<T> {
+        
+        /**
+         * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive).
+         * 
+         * @param lo The first trial to run.
+         * @param hi One past the last trial to run.
+         * 
+         * @return The totals of these trials.
+         */
+        T run(int lo, int hi);
+    }
+    
+    private TrialRanges() {
+    }
+    
+    /**
+     * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive) in at
+     * most {@code maxRanges} ranges, either on the calling thread or on a pool
+     * of workers.
+     * 
+     * @param <T> The type of the totals of a range.
+     * @param pool The pool to run the trials on, or {@code null} to run them on
+     *        the calling thread.
+     * @param lo The first trial to run.
+     * @param hi One past the last trial to run.
+     * @param maxRanges The # of ranges to split the trials into, or fewer if
+     *        there are fewer trials.
+     * @param runner Runs a range of trials.
+     * @param merger Merges the totals of its second argument into its first.
+     * 
+     * @return The totals of all the trials.
+     * @throws IllegalArgumentException if {@code hi ≤ lo} or {@code maxRanges ≤ 0}.
+     */
+    public static <T> T run(ForkJoinPool pool, int lo, int hi, int maxRanges, Runner<T> runner,
+                            BiConsumer<T, T> merger) {
+        if (hi <= lo || maxRanges <= 0) {
+            throw new IllegalArgumentException("Must run at least one trial in at least one range. "
+                                               + "You entered lo = " + lo + ", hi = " + hi
+                                               + " and maxRanges = " + maxRanges + ".");
+        }
+        if (pool == null) {
+            return runTrials(lo, hi, Math.min(maxRanges, hi - lo), runner, merger);
+        }
+        return pool.invoke(new RangeTask<T>(lo, hi, Math.min(maxRanges, hi - lo), runner, merger));
+    }
+    
+    /**
+     * Run the trials {@code lo} (inclusive) to {@code hi} (exclusive) on the
+     * calling thread, splitting and merging the range the same way as
+     * {@code RangeTask} does.
+     * 
+     * @param lo The first trial to run.
+     * @param hi One past the last trial to run.
+     * @param ranges The # of ranges to split the trials into, at most
+     *        {@code hi - lo}.
+     * @param runner Runs a range of trials.
+     * @param merger Merges the totals of its second argument into its first.
+     * 
+     * @return The totals of these trials.
+     */
+    private static <T> T runTrials(int lo, int hi, int ranges, Runner<T> runner,
+                                   BiConsumer<T, T> merger) {
+        T left;
+        int mid;
+        
+        if (ranges == 1) {
+            return runner.run(lo, hi);
+        }
+        mid = split(lo, hi, ranges);
+        left = runTrials(lo, mid, ranges / 2, runner, merger);
+        merger.accept(left, runTrials(mid, hi, ranges - ranges / 2, runner, merger));
+        return left;
+    }
+    
+    /**
+     * Return where to split the trials {@code lo} to {@code hi} so the first
+     * {@code ranges / 2} ranges go to the first half and the others to the
+     * second, each range getting about as many trials.
+     * 
+     * @param lo The first trial.
+     * @param hi One past the last trial.
+     * @param ranges The # of ranges, at least 2 and at most {@code hi - lo}.
+     * 
+     * @return The first trial of the second half.
+     */
+    private static int split(int lo, int hi, int ranges) {
+        // Computed in long, so a large range doesn't overflow. Each half has
+        // at least as many trials as ranges.
+        return lo + (int) ((long) (hi - lo) * (ranges / 2) / ranges);
+    }
+    
+    /**
+     * The {@code RangeTask} class splits a range of trials in half until it is
+     * a single range to be run directly by a worker, and merges the totals of
+     * the two halves.
+     */
+    private static class RangeTask<T> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+        private final int lo, hi, ranges;
+        // The tasks are never serialized.
+        private final transient Runner<T> runner;
+        private final transient BiConsumer<T, T> merger;
+        
+        RangeTask(int lo, int hi, int ranges, Runner<T> runner, BiConsumer<T, T> merger) {
+            this.lo = lo;
+            this.hi = hi;
+            this.ranges = ranges;
+            this.runner = runner;
+            this.merger = merger;
+        }
+        
+        @Override
+        protected T compute() {
+            RangeTask<T> leftTask;
+            T left, right;
+            int mid;
+            
+            if (ranges == 1) {
+                return runner.run(lo, hi);
+            }
+            mid = split(lo, hi, ranges);
+            leftTask = new RangeTask<T>(lo, mid, ranges / 2, runner, merger);
+            leftTask.fork();
+            right = new RangeTask<T>(mid, hi, ranges - ranges / 2, runner, merger).compute();
+            left = leftTask.join();
+            merger.accept(left, right);
+            return left;
+        }
+    }
+}
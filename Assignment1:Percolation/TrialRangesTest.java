@@ -0,0 +1,66 @@
+/******************************************************************************
+ * Run: Open TrialRanges.java and TrialRangesTest.java in DrJava and click Test.
+ * 
+ *  Unit tests for running ranges of trials.
+ * 
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the TrialRanges class.
+ */
+public class TrialRangesTest extends TestCase {
+    
+    /**
+     * Run the trials in ranges that record themselves, and verify that the
+     * ranges cover every trial once, in order, and that there are exactly
+     * {@code maxRanges} of them, or one per trial, serially and on a pool.
+     */
+    public void testTrialRangesSplit() {
+        ForkJoinPool pool;
+        List<int[]> ranges;
+        int next;
+        
+        pool = new ForkJoinPool(4);
+        try {
+            for (int maxRanges : new int[] {1, 3, 4, 256, 2000}) {
+                for (ForkJoinPool runOn : new ForkJoinPool[] {null, pool}) {
+                    ranges = TrialRanges.run(runOn, 5, 1005, maxRanges, (lo, hi) -> {
+                        List<int[]> range = new ArrayList<int[]>();
+                        range.add(new int[] {lo, hi});
+                        return range;
+                    }, List::addAll);
+                    assertEquals(Math.min(maxRanges, 1000), ranges.size());
+                    next = 5;
+                    for (int[] range : ranges) {
+                        assertEquals(next, range[0]);
+                        assertTrue(range[1] > range[0]);
+                        next = range[1];
+                    }
+                    assertEquals(1005, next);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Verify that an empty range of trials or no ranges at all are rejected.
+     */
+    public void testTrialRangesBadArguments() {
+        try {
+            TrialRanges.run(null, 3, 3, 1, (lo, hi) -> lo, (left, right) -> { });
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            TrialRanges.run(null, 0, 3, 0, (lo, hi) -> lo, (left, right) -> { });
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+    }
+}
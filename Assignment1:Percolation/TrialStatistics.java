@@ -0,0 +1,117 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 TrialStatistics.java
+ *  Execution:    No main method.
+ *
+ *  Running mean and variance of a series of trial results.
+ * 
+ ******************************************************************************/
+
+/**
+ * The {@code TrialStatistics} class is a <em>data type</em> that accumulates
+ * the sample mean and variance of a series of values one value at a time, in
+ * constant memory and without a second pass.
+ * <p>
+ * Values are added with Welford's update, which stays accurate even when the
+ * variance is tiny compared to the mean (as it is for percolation thresholds).
+ * Two accumulators built over separate series, for example by two worker
+ * threads, can be merged into the statistics of the combined series with
+ * Chan et al.'s pairwise formula.
+ */
+public class TrialStatistics {
+    private long count;
+    private double mean;
+    // Sum of squared differences from the current mean.
+    private double squaredDeviations;
+    
+    /**
+     * Create an accumulator with no values.
+     */
+    public TrialStatistics() {
+        count = 0;
+        mean = 0.0;
+        squaredDeviations = 0.0;
+    }
+    
+    /**
+     * Add a value to the series.
+     * 
+     * @param value The value to add.
+     */
+    public void add(double value) {
+        double delta;
+        
+        count++;
+        delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+    
+    /**
+     * Add all the values of another accumulator to this one. The other
+     * accumulator is left unchanged.
+     * 
+     * @param that The accumulator to merge into this one.
+     */
+    public void merge(TrialStatistics that) {
+        long totalCount;
+        double delta;
+        
+        if (that.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = that.count;
+            mean = that.mean;
+            squaredDeviations = that.squaredDeviations;
+            return;
+        }
+        totalCount = count + that.count;
+        delta = that.mean - mean;
+        mean += delta * that.count / totalCount;
+        squaredDeviations += that.squaredDeviations
+                             + delta * delta * ((double) count * that.count / totalCount);
+        count = totalCount;
+    }
+    
+    /**
+     * The # of values in the series.
+     * 
+     * @return The # of values added so far.
+     */
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * The sample mean of the series.
+     * 
+     * @return The mean of the values, or {@code NaN} if there are none.
+     */
+    public double mean() {
+        return (count == 0) ? Double.NaN : mean;
+    }
+    
+    /**
+     * The sample variance of the series.
+     * 
+     * @return The variance of the values, or {@code NaN} if there are fewer
+     *         than two.
+     */
+    public double var() {
+        // With no values, 0.0 / -1 would give -0.0 instead of NaN.
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return squaredDeviations / (count - 1);
+    }
+    
+    /**
+     * The sample standard deviation of the series.
+     * 
+     * @return The standard deviation of the values, or {@code NaN} if there are
+     *         fewer than two.
+     */
+    public double stddev() {
+        return Math.sqrt(var());
+    }
+}
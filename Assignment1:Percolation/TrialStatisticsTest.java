@@ -0,0 +1,87 @@
+/******************************************************************************
+ * Run: Open TrialStatistics.java and TrialStatisticsTest.java in DrJava and
+ *      click Test.
+ *
+ *  Unit tests for the running statistics of percolation trials.
+ * 
+ ******************************************************************************/
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the TrialStatistics class.
+ */
+public class TrialStatisticsTest extends TestCase {
+    
+    /**
+     * Verify that the mean is NaN with no values, and the variance and
+     * standard deviation with fewer than two.
+     */
+    public void testTrialStatisticsTooFewValues() {
+        TrialStatistics statistics;
+        
+        statistics = new TrialStatistics();
+        assertEquals(0, statistics.count());
+        assertTrue(Double.isNaN(statistics.mean()));
+        assertTrue(Double.isNaN(statistics.var()));
+        assertTrue(Double.isNaN(statistics.stddev()));
+        statistics.add(0.5);
+        assertEquals(0.5, statistics.mean(), 0.0);
+        assertTrue(Double.isNaN(statistics.var()));
+        assertTrue(Double.isNaN(statistics.stddev()));
+    }
+    
+    /**
+     * Add a few values and verify the mean and the sample variance against
+     * their definitions.
+     */
+    public void testTrialStatisticsAdd() {
+        TrialStatistics statistics;
+        double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+        
+        statistics = new TrialStatistics();
+        for (double value : values) {
+            statistics.add(value);
+        }
+        assertEquals(8, statistics.count());
+        assertEquals(5.0, statistics.mean(), 1e-12);
+        assertEquals(32.0 / 7, statistics.var(), 1e-12);
+        assertEquals(Math.sqrt(32.0 / 7), statistics.stddev(), 1e-12);
+    }
+    
+    /**
+     * Split a series at every position, merge the statistics of the two halves
+     * and verify that they match adding the values one at a time. The values
+     * have a large mean and a small spread, like percolation thresholds.
+     */
+    public void testTrialStatisticsMergeMatchesAdd() {
+        TrialStatistics sequential, left, right;
+        double[] values;
+        Random random;
+        
+        random = new Random(42);
+        values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0.59 + 1e-3 * random.nextGaussian();
+        }
+        sequential = new TrialStatistics();
+        for (double value : values) {
+            sequential.add(value);
+        }
+        for (int split = 0; split <= values.length; split++) {
+            left = new TrialStatistics();
+            right = new TrialStatistics();
+            for (int i = 0; i < split; i++) {
+                left.add(values[i]);
+            }
+            for (int i = split; i < values.length; i++) {
+                right.add(values[i]);
+            }
+            left.merge(right);
+            assertEquals(sequential.count(), left.count());
+            assertEquals(sequential.mean(), left.mean(), 1e-12);
+            assertEquals(sequential.var(), left.var(), 1e-12 * sequential.var());
+            assertEquals(values.length - split, right.count());
+        }
+    }
+}
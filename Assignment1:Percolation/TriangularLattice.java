@@ -0,0 +1,82 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 Lattice.java TriangularLattice.java
+ *  Execution:    No main method.
+ *
+ *  Triangular lattice, each site connected to 6 others.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code TriangularLattice} class is a 2-dimensional {@code Lattice} where
+ * each site has 6 neighbors. It is laid out on a grid of rows and columns as a
+ * square grid with one diagonal added to each square: site {@code (row, col)}
+ * is connected to its 4 neighbors on the grid and to {@code (row - 1, col + 1)}
+ * and {@code (row + 1, col - 1)}. Its site percolation threshold is exactly
+ * 1/2.
+ */
+public class TriangularLattice extends Lattice {
+    private final long rows;
+    private final long cols;
+    
+    /**
+     * Initialize a lattice of {@code rows}-by-{@code cols} sites.
+     * 
+     * @param rows The # of rows, from the top to the bottom.
+     * @param cols The # of columns.
+     * @throws IllegalArgumentException if {@code rows ≤ 0}, {@code cols ≤ 0}
+     *         or there are too many sites.
+     */
+    public TriangularLattice(long rows, long cols) {
+        super(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
+    
+    /**
+     * The most neighbors a site can have.
+     * 
+     * @return 6.
+     */
+    public int maxNeighbors() {
+        return 6;
+    }
+    
+    /**
+     * Write the 6 sites around {@code site} into {@code out}.
+     * 
+     * @param site The number of the site.
+     * @param out The array to write the neighbors into.
+     * 
+     * @return The # of neighbors written.
+     */
+    public int neighbors(long site, long[] out) {
+        long row, col;
+        boolean left, right;
+        int count;
+        
+        row = site / cols;
+        col = site - row * cols;
+        left = col > 0;
+        right = col < cols - 1;
+        count = 0;
+        if (left) {
+            out[count++] = site - 1;
+        }
+        if (right) {
+            out[count++] = site + 1;
+        }
+        if (row > 0) {
+            out[count++] = site - cols;
+            if (right) {
+                out[count++] = site - cols + 1;
+            }
+        }
+        if (row < rows - 1) {
+            out[count++] = site + cols;
+            if (left) {
+                out[count++] = site + cols - 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,192 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/LatticePercolationBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.LatticePercolationBenchmark
+ *
+ *  JMH benchmark of LatticePercolation against Percolation.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code LatticePercolationBenchmark} class measures the time to reset a
+ * grid and open all its sites in a fixed random order, on the hand-written
+ * n-by-n {@code Percolation} and on {@code LatticePercolation} with a
+ * {@code SquareLattice}:
+ * <ul>
+ * <li>{@code percolation} - {@code Percolation.openAll} on an n-by-n grid.
+ * <li>{@code lattice2d} - the same grid and order on a
+ *     {@code LatticePercolation}, through the grid case of
+ *     {@code SquareLattice}.
+ * <li>{@code lattice2dLoop} - the same grid with two extra axes of extent 1,
+ *     which go through the loop over the axes instead.
+ * <li>{@code lattice3d} - a cube with the same # of sites, through the cube
+ *     case of {@code SquareLattice}.
+ * </ul>
+ * The values of {@code n} are cubes, so that {@code n * n} sites make a cube.
+ * <p>
+ * As in {@code PercolationBenchmark}, the classes are reached through
+ * {@code static final} method handles because they live in the default
+ * package.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LatticePercolationBenchmark {
+    private static final long SEED = 700;
+    private static final MethodHandle NEW_PERCOLATION, PERCOLATION_RESET, PERCOLATION_OPEN_ALL;
+    private static final MethodHandle NEW_LATTICE, LATTICE_RESET, LATTICE_OPEN_ALL;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> percolation, lattice;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            percolation = Class.forName("Percolation");
+            lattice = Class.forName("LatticePercolation");
+            NEW_PERCOLATION = lookup.findConstructor(percolation, MethodType.methodType(void.class, int.class))
+                                    .asType(MethodType.methodType(Object.class, int.class));
+            PERCOLATION_RESET = lookup.findVirtual(percolation, "reset", MethodType.methodType(void.class))
+                                      .asType(MethodType.methodType(void.class, Object.class));
+            PERCOLATION_OPEN_ALL = lookup.findVirtual(percolation, "openAll",
+                                                      MethodType.methodType(int.class, int[].class,
+                                                                            int.class, int.class))
+                                         .asType(MethodType.methodType(int.class, Object.class, int[].class,
+                                                                       int.class, int.class));
+            NEW_LATTICE = lookup.findConstructor(lattice, MethodType.methodType(void.class, long[].class))
+                                .asType(MethodType.methodType(Object.class, long[].class));
+            LATTICE_RESET = lookup.findVirtual(lattice, "reset", MethodType.methodType(void.class))
+                                  .asType(MethodType.methodType(void.class, Object.class));
+            LATTICE_OPEN_ALL = lookup.findVirtual(lattice, "openAll",
+                                                  MethodType.methodType(int.class, long[].class,
+                                                                        int.class, int.class))
+                                     .asType(MethodType.methodType(int.class, Object.class, long[].class,
+                                                                   int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"64", "1000"})
+    public int n;
+    
+    private int[] sites;
+    private long[] longSites;
+    private Object percolation, lattice2d, lattice2dLoop, lattice3d;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random;
+        int totSites, j, site;
+        long side;
+        
+        random = new SplittableRandom(SEED);
+        totSites = n * n;
+        sites = new int[totSites];
+        for (int i = 0; i < totSites; i++) {
+            sites[i] = i;
+        }
+        for (int i = 0; i < totSites - 1; i++) {
+            j = i + random.nextInt(totSites - i);
+            site = sites[j];
+            sites[j] = sites[i];
+            sites[i] = site;
+        }
+        longSites = new long[totSites];
+        for (int i = 0; i < totSites; i++) {
+            longSites[i] = sites[i];
+        }
+        
+        side = Math.round(Math.cbrt(totSites));
+        percolation = (Object) NEW_PERCOLATION.invokeExact(n);
+        lattice2d = (Object) NEW_LATTICE.invokeExact(new long[] {n, n});
+        lattice2dLoop = (Object) NEW_LATTICE.invokeExact(new long[] {n, n, 1, 1});
+        lattice3d = (Object) NEW_LATTICE.invokeExact(new long[] {side, side, side});
+    }
+    
+    @Benchmark
+    public int percolation() throws Throwable {
+        int percolatedAt, rest;
+        
+        PERCOLATION_RESET.invokeExact(percolation);
+        percolatedAt = (int) PERCOLATION_OPEN_ALL.invokeExact(percolation, sites, 0, sites.length);
+        // openAll stops right after the system percolates.
+        if (percolatedAt >= 0) {
+            rest = (int) PERCOLATION_OPEN_ALL.invokeExact(percolation, sites, percolatedAt + 1,
+                                                          sites.length);
+        }
+        return percolatedAt;
+    }
+    
+    @Benchmark
+    public int lattice2d() throws Throwable {
+        return openAll(lattice2d);
+    }
+    
+    @Benchmark
+    public int lattice2dLoop() throws Throwable {
+        return openAll(lattice2dLoop);
+    }
+    
+    @Benchmark
+    public int lattice3d() throws Throwable {
+        return openAll(lattice3d);
+    }
+    
+    /**
+     * Reset a {@code LatticePercolation} and open all of its sites.
+     * 
+     * @param lattice The {@code LatticePercolation}.
+     * 
+     * @return The position of the site that made it percolate.
+     */
+    private int openAll(Object lattice) throws Throwable {
+        int percolatedAt, rest;
+        
+        LATTICE_RESET.invokeExact(lattice);
+        percolatedAt = (int) LATTICE_OPEN_ALL.invokeExact(lattice, longSites, 0, longSites.length);
+        if (percolatedAt >= 0) {
+            rest = (int) LATTICE_OPEN_ALL.invokeExact(lattice, longSites, percolatedAt + 1,
+                                                      longSites.length);
+        }
+        return percolatedAt;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(LatticePercolationBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("lattice-percolation-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}
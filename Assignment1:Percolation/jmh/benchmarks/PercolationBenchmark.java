@@ -0,0 +1,155 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/PercolationBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.PercolationBenchmark
+ *
+ *  JMH benchmark of the Percolation data type.
+ * 
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code PercolationBenchmark} class measures the throughput of
+ * {@code Percolation.open}, {@code Percolation.isFull} and
+ * {@code Percolation.percolates} on n-by-n grids.
+ * <p>
+ * {@code open} opens the sites of a grid in a fixed random order, starting
+ * over on a new grid once all of them are open. {@code isFull} and
+ * {@code percolates} query a grid with 60% of its sites open, just above the
+ * percolation threshold.
+ * <p>
+ * JMH doesn't accept benchmarks in the default package, and classes in a named
+ * package can't refer to the default package classes of the assignment. The
+ * benchmark therefore reaches {@code Percolation} through {@code static final}
+ * method handles, which the JIT compiler turns into direct calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PercolationBenchmark {
+    private static final long SEED = 700;
+    private static final double OPEN_FRACTION = 0.6;
+    private static final int QUERIES = 1 << 16;
+    private static final MethodHandle NEW_PERCOLATION, OPEN, IS_FULL, PERCOLATES;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> percolation;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            percolation = Class.forName("Percolation");
+            NEW_PERCOLATION = lookup.findConstructor(percolation, MethodType.methodType(void.class, int.class))
+                                    .asType(MethodType.methodType(Object.class, int.class));
+            OPEN = lookup.findVirtual(percolation, "open", MethodType.methodType(void.class, int.class, int.class))
+                         .asType(MethodType.methodType(void.class, Object.class, int.class, int.class));
+            IS_FULL = lookup.findVirtual(percolation, "isFull", MethodType.methodType(boolean.class, int.class, int.class))
+                            .asType(MethodType.methodType(boolean.class, Object.class, int.class, int.class));
+            PERCOLATES = lookup.findVirtual(percolation, "percolates", MethodType.methodType(boolean.class))
+                               .asType(MethodType.methodType(boolean.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"100", "1000", "10000"})
+    public int n;
+    
+    private int[] sites, queries;
+    private int nextSite, nextQuery;
+    private Object percolation, partlyOpen;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random;
+        int totSites, j, site;
+        
+        random = new SplittableRandom(SEED);
+        totSites = n * n;
+        sites = new int[totSites];
+        for (int i = 0; i < totSites; i++) {
+            sites[i] = i;
+        }
+        for (int i = 0; i < totSites - 1; i++) {
+            j = i + random.nextInt(totSites - i);
+            site = sites[j];
+            sites[j] = sites[i];
+            sites[i] = site;
+        }
+        
+        partlyOpen = (Object) NEW_PERCOLATION.invokeExact(n);
+        for (int i = 0; i < (int) (OPEN_FRACTION * totSites); i++) {
+            OPEN.invokeExact(partlyOpen, 1 + sites[i] / n, 1 + sites[i] % n);
+        }
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(totSites);
+        }
+        
+        percolation = (Object) NEW_PERCOLATION.invokeExact(n);
+        nextSite = 0;
+        nextQuery = 0;
+    }
+    
+    @Benchmark
+    public void open() throws Throwable {
+        int site;
+        
+        if (nextSite == sites.length) {
+            percolation = (Object) NEW_PERCOLATION.invokeExact(n);
+            nextSite = 0;
+        }
+        site = sites[nextSite++];
+        OPEN.invokeExact(percolation, 1 + site / n, 1 + site % n);
+    }
+    
+    @Benchmark
+    public boolean isFull() throws Throwable {
+        int site;
+        
+        site = queries[nextQuery++ & (QUERIES - 1)];
+        return (boolean) IS_FULL.invokeExact(partlyOpen, 1 + site / n, 1 + site % n);
+    }
+    
+    @Benchmark
+    public boolean percolates() throws Throwable {
+        return (boolean) PERCOLATES.invokeExact(partlyOpen);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(PercolationBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("percolation-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}
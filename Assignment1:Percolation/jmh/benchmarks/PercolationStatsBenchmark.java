@@ -0,0 +1,95 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/PercolationStatsBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.PercolationStatsBenchmark
+ *
+ *  JMH benchmark of the PercolationStats data type.
+ * 
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code PercolationStatsBenchmark} class measures the time taken by a
+ * whole {@code PercolationStats} experiment, end to end, for a few grid sizes
+ * and worker counts. Divide by {@code trials} for the time per trial.
+ * <p>
+ * As in {@code PercolationBenchmark}, {@code PercolationStats} is reached
+ * through method handles because it lives in the default package.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PercolationStatsBenchmark {
+    private static final long SEED = 700;
+    private static final MethodHandle NEW_PERCOLATION_STATS, MEAN;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> percolationStats;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            percolationStats = Class.forName("PercolationStats");
+            NEW_PERCOLATION_STATS = lookup.findConstructor(percolationStats,
+                                                           MethodType.methodType(void.class, int.class, int.class,
+                                                                                 int.class, long.class))
+                                          .asType(MethodType.methodType(Object.class, int.class, int.class,
+                                                                        int.class, long.class));
+            MEAN = lookup.findVirtual(percolationStats, "mean", MethodType.methodType(double.class))
+                         .asType(MethodType.methodType(double.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"100", "400"})
+    public int n;
+    
+    @Param({"100"})
+    public int trials;
+    
+    @Param({"1", "4"})
+    public int parallelism;
+    
+    @Benchmark
+    public double experiment() throws Throwable {
+        Object percolationStats;
+        
+        percolationStats = (Object) NEW_PERCOLATION_STATS.invokeExact(n, trials, parallelism, SEED);
+        return (double) MEAN.invokeExact(percolationStats);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(PercolationStatsBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("percolation-stats-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,133 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationRenderer.java
+ *  Execution:    java PercolationRenderer input.txt frames
+ *                java PercolationRenderer input.txt frames 100 8
+ *  Dependencies: Percolation.java
+ *
+ *  This program takes the name of a file as a command-line argument,
+ *  in the same format as PercolationVisualizer, and a prefix for the
+ *  images to write. It replays the sequence of sites without a display,
+ *  drawing full sites in light blue, open sites (that aren't full) in
+ *  white, and blocked sites in black, into an image in memory.
+ *
+ *  With no other arguments it writes the final state to prefix.png.
+ *  An optional third argument k writes a frame prefix-00001.png, ...
+ *  every k opens instead, and an optional fourth argument sets the
+ *  size of a cell in pixels (default 8).
+ *
+ ******************************************************************************/
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import edu.princeton.cs.algs4.In;
+
+public class PercolationRenderer {
+
+    // same colors as StdDraw.BOOK_LIGHT_BLUE, WHITE and BLACK
+    private static final Color FULL_COLOR    = new Color(103, 198, 243);
+    private static final Color OPEN_COLOR    = Color.WHITE;
+    private static final Color BLOCKED_COLOR = Color.BLACK;
+
+    private final int n;
+    private final int cellSize;
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+    private final byte[] cells;     // state of each site as last drawn
+    private final byte[] states;    // scratch space for a Percolation.snapshot()
+
+    // create an image of an n-by-n grid of blocked sites, cellSize pixels per site
+    public PercolationRenderer(int n, int cellSize) {
+        if (n <= 0 || cellSize <= 0)
+            throw new IllegalArgumentException("n and cellSize must be positive");
+        this.n = n;
+        this.cellSize = cellSize;
+        image = new BufferedImage(n * cellSize, n * cellSize, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        graphics.setColor(BLOCKED_COLOR);
+        graphics.fillRect(0, 0, n * cellSize, n * cellSize);
+        cells = new byte[n*n];
+        states = new byte[n*n];
+    }
+
+    // repaint the cells whose state changed since the last update, and
+    // return the # of cells repainted
+    public int update(Percolation perc) {
+        int inset = cellSize / 20;
+        int repainted = 0;
+        perc.snapshot(states);
+        for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+                int site = (row - 1) * n + (col - 1);
+                byte state = states[site];
+                if (state == cells[site]) continue;
+                cells[site] = state;
+                if      (state == Percolation.FULL) graphics.setColor(FULL_COLOR);
+                else if (state == Percolation.OPEN) graphics.setColor(OPEN_COLOR);
+                else                                graphics.setColor(BLOCKED_COLOR);
+                // site (1, 1) in the upper left-hand corner, with a black border
+                graphics.fillRect((col - 1) * cellSize + inset, (row - 1) * cellSize + inset,
+                                  cellSize - 2 * inset, cellSize - 2 * inset);
+                repainted++;
+            }
+        }
+        return repainted;
+    }
+
+    // the image as of the last update
+    public BufferedImage image() {
+        return image;
+    }
+
+    // write the image as of the last update to a PNG file
+    public void write(String filename) {
+        try {
+            ImageIO.write(image, "png", new File(filename));
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not write " + filename, e);
+        }
+    }
+
+    public static void main(String[] args) {
+        // no display needed
+        System.setProperty("java.awt.headless", "true");
+
+        In in = new In(args[0]);      // input file
+        String prefix = args[1];      // prefix of the images to write
+        int every = 0;
+        if (args.length >= 3) every = Integer.parseInt(args[2]);
+        int cellSize = 8;
+        if (args.length >= 4) cellSize = Integer.parseInt(args[3]);
+        int n = in.readInt();         // n-by-n percolation system
+
+        Percolation perc = new Percolation(n);
+        PercolationRenderer renderer = new PercolationRenderer(n, cellSize);
+        int opened = 0;
+        int frames = 0;
+        while (!in.isEmpty()) {
+            int i = in.readInt();
+            int j = in.readInt();
+            perc.open(i, j);
+            opened++;
+            if (every > 0 && opened % every == 0) {
+                renderer.update(perc);
+                renderer.write(String.format("%s-%05d.png", prefix, ++frames));
+            }
+        }
+        renderer.update(perc);
+        if (every > 0) {
+            if (opened % every != 0) renderer.write(String.format("%s-%05d.png", prefix, ++frames));
+        }
+        else {
+            renderer.write(prefix + ".png");
+            frames = 1;
+        }
+        System.out.println(opened + " sites opened, " + frames + " frames written");
+    }
+}
@@ -14,6 +14,12 @@
  *  open sites (that aren't full) in white, and blocked sites in black,
  *  with with site (1, 1) in the upper left-hand corner.
  *
+ *  An optional second argument sets the delay between frames in
+ *  milliseconds (default 100), and an optional third argument the
+ *  # of sites opened per frame (default 1). Only the cells whose
+ *  state changed since the last frame are redrawn, so with a delay
+ *  of 0 the replay runs close to simulation speed.
+ *
  ******************************************************************************/
 
 import java.awt.Font;
@@ -23,7 +29,7 @@ import edu.princeton.cs.algs4.StdDraw;
 
 public class PercolationVisualizer {
 
-    // delay in miliseconds (controls animation speed)
+    // default delay in miliseconds (controls animation speed)
     private static final int DELAY = 100;
 
     // draw n-by-n percolation system
@@ -34,15 +40,18 @@ public class PercolationVisualizer {
         StdDraw.setYscale(-0.05*n, 1.05*n);   // leave a border to write text
         StdDraw.filledSquare(n/2.0, n/2.0, n/2.0);
 
-        // draw n-by-n grid
+        // draw n-by-n grid, from a snapshot of the state of all the sites
+        byte[] states = new byte[n*n];
+        perc.snapshot(states);
         int opened = 0;
         for (int row = 1; row <= n; row++) {
             for (int col = 1; col <= n; col++) {
-                if (perc.isFull(row, col)) {
+                byte state = states[(row - 1) * n + (col - 1)];
+                if (state == Percolation.FULL) {
                     StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
                     opened++;
                 }
-                else if (perc.isOpen(row, col)) {
+                else if (state == Percolation.OPEN) {
                     StdDraw.setPenColor(StdDraw.WHITE);
                     opened++;
                 }
@@ -61,25 +70,69 @@ public class PercolationVisualizer {
 
     }
 
+    // draw only the cells whose state differs from the one recorded in cells[]
+    // (a Percolation.snapshot()), and record the new state; cells[] must match
+    // the canvas, e.g. all Percolation.BLOCKED right after draw() of a new grid;
+    // states[] is scratch space for the new snapshot, both of length n*n
+    public static void drawChanged(Percolation perc, int n, byte[] cells, byte[] states) {
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.filledRectangle(0.5*n, -0.025*n, 0.55*n, 0.025*n);
+
+        perc.snapshot(states);
+        for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+                int site = (row - 1) * n + (col - 1);
+                byte state = states[site];
+                if (state == cells[site]) continue;
+                cells[site] = state;
+                if      (state == Percolation.FULL) StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
+                else if (state == Percolation.OPEN) StdDraw.setPenColor(StdDraw.WHITE);
+                else                                StdDraw.setPenColor(StdDraw.BLACK);
+                StdDraw.filledSquare(col - 0.5, n - row + 0.5, 0.45);
+            }
+        }
+
+        // write status text
+        StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.text(0.25*n, -0.025*n, perc.numberOfOpenSites() + " open sites");
+        if (perc.percolates()) StdDraw.text(0.75*n, -0.025*n, "percolates");
+        else                   StdDraw.text(0.75*n, -0.025*n, "does not percolate");
+    }
+
     public static void main(String[] args) {
         In in = new In(args[0]);      // input file
         int n = in.readInt();         // n-by-n percolation system
+        int delay = DELAY;
+        if (args.length >= 2) delay = Integer.parseInt(args[1]);
+        int opensPerFrame = 1;
+        if (args.length >= 3) opensPerFrame = Integer.parseInt(args[2]);
+        if (opensPerFrame < 1) {
+            throw new IllegalArgumentException("Usage: java PercolationVisualizer input.txt [delay] [opensPerFrame]. "
+                                               + "The # of sites opened per frame must be at least 1. "
+                                               + "You entered " + opensPerFrame + ".");
+        }
 
         // turn on animation mode
         StdDraw.enableDoubleBuffering();
 
-        // repeatedly read in sites to open and draw resulting system
+        // repeatedly read in sites to open and draw the cells that changed
         Percolation perc = new Percolation(n);
+        byte[] cells = new byte[n*n];
+        byte[] states = new byte[n*n];
         draw(perc, n);
         StdDraw.show();
-        StdDraw.pause(DELAY);
+        StdDraw.pause(delay);
+        int opened = 0;
         while (!in.isEmpty()) {
             int i = in.readInt();
             int j = in.readInt();
             perc.open(i, j);
-            draw(perc, n);
+            opened++;
+            if (opened % opensPerFrame != 0 && !in.isEmpty()) continue;
+            drawChanged(perc, n, cells, states);
             StdDraw.show();
-            StdDraw.pause(DELAY);
+            if (delay > 0) StdDraw.pause(delay);
         }
     }
 }
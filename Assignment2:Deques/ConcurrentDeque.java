@@ -0,0 +1,224 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 ConcurrentDeque.java
+ *  Execution:    java-algs4 ConcurrentDeque
+ *
+ *  Thread-safe, lock-free deque data type.
+ *
+ ******************************************************************************/
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code ConcurrentDeque} class supports the same operations as
+ * {@code Deque}, but any # of threads can add and remove items at either end
+ * at the same time without a lock.
+ * <p>
+ * The items are kept in a {@code ConcurrentLinkedDeque}, a doubly linked list
+ * whose links are updated with compare-and-set: a thread that loses a race to
+ * link or unlink a node retries instead of blocking, so no thread ever waits
+ * for another one to be scheduled.
+ * <p>
+ * {@code ConcurrentLinkedDeque.size()} walks the whole list, so the # of
+ * items is counted separately in a {@code LongAdder}, which spreads the
+ * updates of concurrent threads over several cells instead of contending on a
+ * single counter. {@link #size()} takes constant time, but while other
+ * threads are adding or removing items it can be off by the operations in
+ * progress. {@link #isEmpty()} asks the list itself, which is exact and also
+ * takes constant time. The iterator is weakly consistent: it never throws
+ * {@code ConcurrentModificationException} and returns the items present when
+ * it was created, and possibly some added or removed since.
+ */
+public class ConcurrentDeque<Item> implements Iterable<Item> {
+    private final ConcurrentLinkedDeque<Item> items;
+    private final LongAdder size;
+    
+    /**
+     * Construct an empty {@code ConcurrentDeque} by initializing internal
+     * variables.
+     */
+    public ConcurrentDeque() {
+        items = new ConcurrentLinkedDeque<Item>();
+        size = new LongAdder();
+    }
+    
+    /**
+     * Is the {@code ConcurrentDeque} empty?
+     * 
+     * @return {@code true} if the {@code deque} is empty.
+     *         {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        // The counter can lag behind the list; the list can't.
+        return items.isEmpty();
+    }
+    
+    /**
+     * Return the number of items on the {@code ConcurrentDeque}.
+     * 
+     * @return The number of items on the {@code ConcurrentDeque}.
+     */
+    public int size() {
+        long count;
+        
+        // An item is counted only after it is linked and uncounted only after
+        // it is unlinked, so a remove can be counted before the matching add.
+        count = size.sum();
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, count));
+    }
+    
+    /**
+     * Add the item to the front of the {@code deque}.
+     * 
+     * @param item  The item to add.
+     * 
+     * @throws IllegalArgumentException if {@code item == null}.
+     */
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item can't be added");
+        }
+        items.addFirst(item);
+        size.increment();
+    }
+    
+    /**
+     * Add the item to the end of the {@code deque}.
+     * 
+     * @param item  The item to add.
+     * 
+     * @throws IllegalArgumentException if {@code item == null}.
+     */
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item can't be added");
+        }
+        items.addLast(item);
+        size.increment();
+    }
+    
+    /**
+     * Remove and return the item from the front of the {@code deque}.
+     * 
+     * @return The item at the front.
+     * 
+     * @throws NoSuchElementException If trying to remove an item from an empty
+     *                                {@code deque}.
+     */
+    public Item removeFirst() {
+        Item item;
+        
+        // Checking isEmpty() first would race with the other threads; poll
+        // removes the item or finds the deque empty in one step.
+        item = items.pollFirst();
+        if (item == null) {
+            throw new NoSuchElementException("Can't remove an item from empty deque.");
+        }
+        size.decrement();
+        
+        return item;
+    }
+    
+    /**
+     * Remove and return the item from the end of the {@code deque}.
+     * 
+     * @return The item at the end.
+     * 
+     * @throws NoSuchElementException If trying to remove an item from an empty
+     *                                {@code deque}.
+     */
+    public Item removeLast() {
+        Item item;
+        
+        item = items.pollLast();
+        if (item == null) {
+            throw new NoSuchElementException("Can't remove an item from empty deque.");
+        }
+        size.decrement();
+        
+        return item;
+    }
+    
+    /**
+     * Return an iterator over items in order from front to end.
+     * 
+     * @return Weakly consistent iterator for this deque.
+     */
+    public Iterator<Item> iterator() {
+        return new DequeIterator();
+    }
+    
+    /**
+     * The {@code DequeIterator} class implements the {@code hasNext()} and
+     * {@code next} methods from the {@code Iterator} interface for the
+     * {@code ConcurrentDeque} class.
+     */
+    private class DequeIterator implements Iterator<Item> {
+        private final Iterator<Item> current = items.iterator();
+        
+        public boolean hasNext() {
+            return current.hasNext();
+        }
+        
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more items to return");
+            }
+            return current.next();
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException("Remove in the iterator is not supported");
+        }
+    }
+    
+    /**
+     * Some simple unit testing: 4 threads each add and remove items at both
+     * ends, then 3 items must be left. A thread can remove the items of
+     * another one, so they need not be the 3 items added first, only as many.
+     * 
+     * @param args The command-line arguments.
+     * @throws InterruptedException if interrupted while waiting for the
+     *         threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final ConcurrentDeque<Integer> deque = new ConcurrentDeque<Integer>();
+        Thread[] threads;
+        
+        deque.addFirst(3);
+        deque.addFirst(2);
+        deque.addLast(4);
+        StdOut.printf("Size of deque = %d. Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        for (int i : deque) {
+            StdOut.println(i);
+        }
+        
+        threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 100000; i++) {
+                        deque.addFirst(i);
+                        deque.addLast(i);
+                        deque.removeLast();
+                        deque.removeFirst();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        
+        deque.removeFirst();
+        deque.removeFirst();
+        deque.removeLast();
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        
+        deque.removeFirst(); // Will throw an exception.
+    }
+}
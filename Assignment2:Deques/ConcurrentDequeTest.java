@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Run: Open ConcurrentDeque.java and ConcurrentDequeTest.java in DrJava and
+ *      click Test.
+ * 
+ *  Multi-threaded stress tests for the lock-free deque.
+ * 
+ ******************************************************************************/
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the ConcurrentDeque class.
+ */
+public class ConcurrentDequeTest extends TestCase {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 100000;
+    
+    /**
+     * Let several threads add distinct items and remove items at random ends
+     * at the same time, then verify that every item added was either removed
+     * exactly once or is still on the deque, and that {@code size()} is the
+     * exact # of items left once all the threads are done.
+     * 
+     * @throws InterruptedException if interrupted while waiting for the
+     *         threads.
+     */
+    public void testConcurrentDequeStress() throws InterruptedException {
+        final ConcurrentDeque<Integer> deque;
+        final CountDownLatch start;
+        final int[] added;
+        final int[][] removed;
+        final int[] removedCount;
+        final Throwable[] failures;
+        Thread[] threads;
+        int[] seen;
+        int left;
+        
+        deque = new ConcurrentDeque<Integer>();
+        start = new CountDownLatch(1);
+        added = new int[THREADS];
+        removed = new int[THREADS][OPERATIONS];
+        removedCount = new int[THREADS];
+        failures = new Throwable[THREADS];
+        threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    SplittableRandom random;
+                    int item;
+                    
+                    random = new SplittableRandom(thread);
+                    try {
+                        start.await();
+                        for (int i = 0; i < OPERATIONS; i++) {
+                            // Thread t adds the items t * OPERATIONS + j, so
+                            // no two threads add the same item.
+                            item = thread * OPERATIONS + added[thread];
+                            try {
+                                switch (random.nextInt(4)) {
+                                    case 0:
+                                        deque.addFirst(item);
+                                        added[thread]++;
+                                        break;
+                                    case 1:
+                                        deque.addLast(item);
+                                        added[thread]++;
+                                        break;
+                                    case 2:
+                                        removed[thread][removedCount[thread]] = deque.removeFirst();
+                                        removedCount[thread]++;
+                                        break;
+                                    default:
+                                        removed[thread][removedCount[thread]] = deque.removeLast();
+                                        removedCount[thread]++;
+                                        break;
+                                }
+                            } catch (NoSuchElementException e) {
+                                // The deque was empty for a moment.
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failures[thread] = e;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Throwable failure : failures) {
+            if (failure != null) {
+                throw new AssertionError(failure);
+            }
+        }
+        
+        // Count each item removed or left; every item added must be seen
+        // exactly once, and no other item at all.
+        seen = new int[THREADS * OPERATIONS];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < removedCount[t]; i++) {
+                seen[removed[t][i]]++;
+            }
+        }
+        left = 0;
+        for (int item : deque) {
+            seen[item]++;
+            left++;
+        }
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < OPERATIONS; i++) {
+                assertEquals(i < added[t] ? 1 : 0, seen[t * OPERATIONS + i]);
+            }
+        }
+        assertEquals(left, deque.size());
+        assertEquals(left == 0, deque.isEmpty());
+        
+        // Draining the deque must leave it exactly empty.
+        for (int i = 0; i < left; i++) {
+            deque.removeLast();
+        }
+        assertEquals(0, deque.size());
+        assertTrue(deque.isEmpty());
+        try {
+            deque.removeFirst();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+    }
+}
@@ -5,8 +5,14 @@
  *  Deque data type.
  * 
  ******************************************************************************/
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import edu.princeton.cs.algs4.StdOut;
 
 /**
@@ -20,6 +26,8 @@ import edu.princeton.cs.algs4.StdOut;
 public class Deque<Item> implements Iterable<Item> {
     private Node head, tail;
     private int size;
+    // # of changes to the items, for the spliterator to detect them.
+    private int modCount;
     
     /**
      * The {@code Node} in the {@code dequeu}.
@@ -81,6 +89,7 @@ public class Deque<Item> implements Iterable<Item> {
             head = newNode;
         }
         size++;
+        modCount++;
     }
     
     /**
@@ -108,6 +117,7 @@ public class Deque<Item> implements Iterable<Item> {
             tail = newNode;
         }
         size++;
+        modCount++;
     }
     
     /**
@@ -140,6 +150,7 @@ public class Deque<Item> implements Iterable<Item> {
             head = nextNode;
         }
         size--;
+        modCount++;
         
         return item;
     }
@@ -174,10 +185,208 @@ public class Deque<Item> implements Iterable<Item> {
             tail = prevNode;
         }
         size--;
+        modCount++;
         
         return item;
     }
     
+    /**
+     * Add the items to the front of the {@code deque}, in the order they are in
+     * {@code items}: {@code items[0]} becomes the first item.
+     * 
+     * @param items  The items to add.
+     * 
+     * @throws IllegalArgumentException if {@code items} or one of the items is
+     *                                  {@code null}. No item is added then.
+     */
+    public void addAllFirst(Item[] items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Null array of items can't be added");
+        }
+        addAll(Arrays.asList(items).iterator(), true);
+    }
+    
+    /**
+     * Add the items to the end of the {@code deque}, in the order they are in
+     * {@code items}.
+     * 
+     * @param items  The items to add.
+     * 
+     * @throws IllegalArgumentException if {@code items} or one of the items is
+     *                                  {@code null}. No item is added then.
+     */
+    public void addAllLast(Item[] items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Null array of items can't be added");
+        }
+        addAll(Arrays.asList(items).iterator(), false);
+    }
+    
+    /**
+     * Add the items to the front of the {@code deque}, in the order
+     * {@code items} returns them: its first item becomes the first item.
+     * 
+     * @param items  The items to add.
+     * 
+     * @throws IllegalArgumentException if {@code items} or one of the items is
+     *                                  {@code null}. No item is added then.
+     */
+    public void addAllFirst(Iterable<? extends Item> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Null items can't be added");
+        }
+        addAll(items.iterator(), true);
+    }
+    
+    /**
+     * Add the items to the end of the {@code deque}, in the order
+     * {@code items} returns them.
+     * 
+     * @param items  The items to add.
+     * 
+     * @throws IllegalArgumentException if {@code items} or one of the items is
+     *                                  {@code null}. No item is added then.
+     */
+    public void addAllLast(Iterable<? extends Item> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Null items can't be added");
+        }
+        addAll(items.iterator(), false);
+    }
+    
+    /**
+     * Chain new nodes for the items together, then link the whole chain to one
+     * end of the {@code deque} at once. The {@code deque} is only touched after
+     * all the items are read, so a {@code null} item leaves it unchanged, and
+     * {@code items} may iterate over this {@code deque}.
+     * 
+     * @param items    The items to add.
+     * @param atFront  {@code true} to add the items at the front,
+     *                 {@code false} to add them at the end.
+     * 
+     * @throws IllegalArgumentException if one of the items is {@code null}.
+     */
+    private void addAll(Iterator<? extends Item> items, boolean atFront) {
+        Node first, last, newNode;
+        Item item;
+        int count;
+        
+        first = last = null;
+        count = 0;
+        while (items.hasNext()) {
+            item = items.next();
+            if (item == null) {
+                throw new IllegalArgumentException("Null item can't be added");
+            }
+            newNode = new Node();
+            newNode.item = item;
+            newNode.prev = last;
+            if (last == null) {
+                first = newNode;
+            } else {
+                last.next = newNode;
+            }
+            last = newNode;
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        if (head == null) {
+            head = first;
+            tail = last;
+        } else if (atFront) {
+            last.next = head;
+            head.prev = last;
+            head = first;
+        } else {
+            first.prev = tail;
+            tail.next = first;
+            tail = last;
+        }
+        size += count;
+        modCount++;
+    }
+    
+    /**
+     * Remove up to {@code k} items from the front of the {@code deque} and
+     * store them in order in {@code dst}, from index 0. The removed nodes are
+     * cut from the list at once.
+     * 
+     * @param dst  The array to store the items in.
+     * @param k    The most items to remove.
+     * 
+     * @return The # of items removed, {@code min(k, size())}.
+     * 
+     * @throws IllegalArgumentException if {@code dst} is {@code null} or
+     *                                  {@code k} is not in
+     *                                  {@code [0, dst.length]}.
+     */
+    public int drainTo(Item[] dst, int k) {
+        Node current, nextNode;
+        int count;
+        
+        if (dst == null) {
+            throw new IllegalArgumentException("Can't drain items into a null array");
+        }
+        if (k < 0 || k > dst.length) {
+            throw new IllegalArgumentException("k must be between 0 and " + dst.length
+                                               + ". You entered " + k + ".");
+        }
+        count = Math.min(k, size);
+        current = head;
+        for (int i = 0; i < count; i++) {
+            dst[i] = current.item;
+            nextNode = current.next;
+            
+            // Break linkage so the drained nodes don't keep each other alive.
+            current.next = null;
+            current.prev = null;
+            current = nextNode;
+        }
+        head = current;
+        if (head == null) {
+            tail = null;
+        } else {
+            head.prev = null;
+        }
+        size -= count;
+        modCount++;
+        
+        return count;
+    }
+    
+    /**
+     * Move all the items of {@code other} to the end of this {@code deque}, in
+     * order, leaving {@code other} empty. The nodes of {@code other} are
+     * linked in place, so this takes constant time whatever the # of items.
+     * 
+     * @param other  The {@code deque} whose items to move.
+     * 
+     * @throws IllegalArgumentException if {@code other} is {@code null} or this
+     *                                  {@code deque}.
+     */
+    public void splice(Deque<Item> other) {
+        if (other == null || other == this) {
+            throw new IllegalArgumentException("Can't splice a null deque or a deque onto itself");
+        }
+        if (other.head == null) {
+            return;
+        }
+        if (head == null) {
+            head = other.head;
+        } else {
+            other.head.prev = tail;
+            tail.next = other.head;
+        }
+        tail = other.tail;
+        size += other.size;
+        other.head = other.tail = null;
+        other.size = 0;
+        modCount++;
+        other.modCount++;
+    }
+    
     /**
      * Return an iterator over items in order from front to end.
      * 
@@ -215,6 +424,147 @@ public class Deque<Item> implements Iterable<Item> {
         }
     }
     
+    /**
+     * Return a {@code Spliterator} over items in order from front to end. It
+     * reports its exact size, and splits off the first half of its items by
+     * walking to the middle of them, so each part of a parallel stream gets
+     * the same # of items.
+     * <p>
+     * The spliterator is late-binding: it reads the front and the # of items
+     * of the {@code deque} on its first {@code tryAdvance},
+     * {@code forEachRemaining}, {@code trySplit} or {@code estimateSize}, not
+     * when it is created, so a stream sees the changes made between
+     * {@link #stream()} and its terminal operation. After that it is
+     * fail-fast: it throws {@code ConcurrentModificationException} on the next
+     * item if the {@code deque} was changed since.
+     * 
+     * @return Spliterator for this deque.
+     */
+    public Spliterator<Item> spliterator() {
+        return new DequeSpliterator();
+    }
+    
+    /**
+     * Return a sequential {@code Stream} of the items in order from front to
+     * end.
+     * 
+     * @return Stream of the items of this deque.
+     */
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Return a parallel {@code Stream} of the items in order from front to
+     * end.
+     * 
+     * @return Parallel stream of the items of this deque.
+     */
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
+    /**
+     * The {@code DequeSpliterator} class implements the {@code Spliterator}
+     * interface for the {@code Deque} class over a run of {@code remaining}
+     * nodes starting at {@code current}.
+     */
+    private class DequeSpliterator implements Spliterator<Item> {
+        private Node current;
+        // -1 until the spliterator is bound to the items of the deque.
+        private int remaining;
+        private int expectedModCount;
+        
+        /**
+         * Construct a spliterator over all the items, bound on first use.
+         */
+        public DequeSpliterator() {
+            remaining = -1;
+        }
+        
+        /**
+         * Construct a spliterator over {@code count} nodes starting at
+         * {@code first}, split off a bound one.
+         */
+        public DequeSpliterator(Node first, int count, int expectedModCount) {
+            current = first;
+            remaining = count;
+            this.expectedModCount = expectedModCount;
+        }
+        
+        /**
+         * Bind the spliterator to the items of the deque if it isn't yet.
+         * 
+         * @return The # of items left.
+         */
+        private int remaining() {
+            if (remaining < 0) {
+                current = head;
+                remaining = size;
+                expectedModCount = modCount;
+            }
+            return remaining;
+        }
+        
+        /**
+         * Check that the deque wasn't changed since the spliterator was bound.
+         * 
+         * @throws ConcurrentModificationException if the deque was changed
+         *                                         since the spliterator was
+         *                                         bound.
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException("The deque was changed during the traversal");
+            }
+        }
+        
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (remaining() == 0) {
+                return false;
+            }
+            checkForComodification();
+            action.accept(current.item);
+            current = current.next;
+            remaining--;
+            return true;
+        }
+        
+        public void forEachRemaining(Consumer<? super Item> action) {
+            for (remaining(); remaining > 0; remaining--) {
+                checkForComodification();
+                action.accept(current.item);
+                current = current.next;
+            }
+        }
+        
+        public Spliterator<Item> trySplit() {
+            DequeSpliterator prefix;
+            int half;
+            
+            if (remaining() < 2) {
+                return null;
+            }
+            checkForComodification();
+            half = remaining / 2;
+            prefix = new DequeSpliterator(current, half, expectedModCount);
+            for (int i = 0; i < half; i++) {
+                current = current.next;
+            }
+            remaining -= half;
+            
+            return prefix;
+        }
+        
+        public long estimateSize() {
+            return remaining();
+        }
+        
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+    
     /**
      * Some simple unit testing. (Lack of time always equals to skipping unit testing).
      * 
@@ -222,6 +572,8 @@ public class Deque<Item> implements Iterable<Item> {
      */
     public static void main(String[] args) {
         Deque<String> deque = new Deque<String>();
+        Deque<String> other;
+        String[] drained;
         
         deque.addFirst("fourth");
         deque.addFirst("third");
@@ -244,6 +596,24 @@ public class Deque<Item> implements Iterable<Item> {
             StdOut.println(s);
         }
         
+        // Move items in bulk.
+        other = new Deque<String>();
+        other.addAllLast(new String[] {"fourth", "fifth"});
+        deque.addAllFirst(Arrays.asList("first", "second"));
+        deque.splice(other);
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+        StdOut.printf("Total length of the items = %d\n", deque.parallelStream().mapToInt(String::length).sum());
+        
+        drained = new String[3];
+        StdOut.printf("Drained %d items. Size of deque = %d.\n", deque.drainTo(drained, 3), deque.size());
+        for (String s : drained) {
+            StdOut.println(s);
+        }
+        
+        deque.removeLast();
         deque.removeFirst(); // Will throw an exception.
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+/******************************************************************************
+ * Run: Open Deque.java and DequeTest.java in DrJava and click Test.
+ * 
+ *  Unit tests for the bulk operations and streams of the linked list deque.
+ * 
+ ******************************************************************************/
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the Deque class.
+ */
+public class DequeTest extends TestCase {
+    
+    /**
+     * Return a deque of the integers in {@code [0, n)}, in order.
+     */
+    private static Deque<Integer> deque(int n) {
+        Deque<Integer> deque;
+        
+        deque = new Deque<Integer>();
+        for (int i = 0; i < n; i++) {
+            deque.addLast(i);
+        }
+        return deque;
+    }
+    
+    /**
+     * Verify that the deque holds the items in order, reading them from the
+     * front, and from the end by removing them from a copy.
+     */
+    private static void assertItems(List<Integer> expected, Deque<Integer> deque) {
+        Deque<Integer> copy;
+        Iterator<Integer> iterator;
+        
+        assertEquals(expected.size(), deque.size());
+        assertEquals(expected.isEmpty(), deque.isEmpty());
+        iterator = deque.iterator();
+        for (int item : expected) {
+            assertTrue(iterator.hasNext());
+            assertEquals(item, iterator.next().intValue());
+        }
+        assertFalse(iterator.hasNext());
+        
+        // The links back to the front must match the links to the end.
+        copy = new Deque<Integer>();
+        copy.addAllLast(deque);
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), copy.removeLast());
+        }
+        assertTrue(copy.isEmpty());
+    }
+    
+    /**
+     * Add arrays and iterables of items at both ends and verify that each
+     * batch keeps its order: its first item becomes the first or the next
+     * item.
+     */
+    public void testDequeAddAll() {
+        Deque<Integer> deque;
+        
+        deque = deque(2);
+        deque.addAllFirst(new Integer[] {-3, -2, -1});
+        assertItems(Arrays.asList(-3, -2, -1, 0, 1), deque);
+        deque.addAllLast(new Integer[] {2, 3});
+        assertItems(Arrays.asList(-3, -2, -1, 0, 1, 2, 3), deque);
+        deque.addAllFirst(Arrays.asList(-5, -4));
+        assertItems(Arrays.asList(-5, -4, -3, -2, -1, 0, 1, 2, 3), deque);
+        deque.addAllLast(Arrays.asList(4));
+        assertItems(Arrays.asList(-5, -4, -3, -2, -1, 0, 1, 2, 3, 4), deque);
+        
+        // Nothing to add, and adding to an empty deque.
+        deque.addAllFirst(new Integer[0]);
+        deque.addAllLast(Arrays.<Integer>asList());
+        assertEquals(10, deque.size());
+        deque = new Deque<Integer>();
+        deque.addAllFirst(Arrays.asList(0, 1));
+        assertItems(Arrays.asList(0, 1), deque);
+        deque = new Deque<Integer>();
+        deque.addAllLast(new Integer[] {0, 1});
+        assertItems(Arrays.asList(0, 1), deque);
+    }
+    
+    /**
+     * Verify that a null item or a null batch is rejected and leaves the
+     * deque unchanged, even when it comes after valid items.
+     */
+    public void testDequeAddAllNull() {
+        Deque<Integer> deque;
+        
+        deque = deque(3);
+        try {
+            deque.addAllFirst(new Integer[] {-2, null});
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addAllLast(new Integer[] {3, null, 4});
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addAllFirst(Arrays.asList(-1, null));
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addAllLast(Arrays.asList((Integer) null));
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addAllLast((Integer[]) null);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addAllFirst((Iterable<Integer>) null);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        assertItems(Arrays.asList(0, 1, 2), deque);
+    }
+    
+    /**
+     * Add a deque to itself, which reads all its items before linking any,
+     * and verify that splicing a deque onto itself is rejected.
+     */
+    public void testDequeAddAllSelf() {
+        Deque<Integer> deque;
+        
+        deque = deque(3);
+        deque.addAllLast(deque);
+        assertItems(Arrays.asList(0, 1, 2, 0, 1, 2), deque);
+        deque.addAllFirst(deque);
+        assertItems(Arrays.asList(0, 1, 2, 0, 1, 2, 0, 1, 2, 0, 1, 2), deque);
+        
+        deque = deque(3);
+        try {
+            deque.splice(deque);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        assertItems(Arrays.asList(0, 1, 2), deque);
+    }
+    
+    /**
+     * Drain fewer items than there are, more than there are, and none, and
+     * verify the items drained and the ones left.
+     */
+    public void testDequeDrainTo() {
+        Deque<Integer> deque;
+        Integer[] dst;
+        
+        deque = deque(5);
+        dst = new Integer[4];
+        assertEquals(2, deque.drainTo(dst, 2));
+        assertEquals(Arrays.asList(0, 1, null, null), Arrays.asList(dst));
+        assertItems(Arrays.asList(2, 3, 4), deque);
+        
+        // k is 0: nothing moves.
+        assertEquals(0, deque.drainTo(dst, 0));
+        assertItems(Arrays.asList(2, 3, 4), deque);
+        
+        // k is larger than the # of items: drain them all.
+        dst = new Integer[4];
+        assertEquals(3, deque.drainTo(dst, 4));
+        assertEquals(Arrays.asList(2, 3, 4, null), Arrays.asList(dst));
+        assertItems(Arrays.<Integer>asList(), deque);
+        assertEquals(0, deque.drainTo(dst, 4));
+        
+        // The deque still works after it is drained.
+        deque.addLast(5);
+        deque.addFirst(4);
+        assertItems(Arrays.asList(4, 5), deque);
+    }
+    
+    /**
+     * Verify that drainTo rejects a null array and a {@code k} outside
+     * {@code [0, dst.length]}, and leaves the deque unchanged.
+     */
+    public void testDequeDrainToBadArguments() {
+        Deque<Integer> deque;
+        
+        deque = deque(5);
+        try {
+            deque.drainTo(new Integer[2], 3);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.drainTo(new Integer[2], -1);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.drainTo(null, 0);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        assertItems(Arrays.asList(0, 1, 2, 3, 4), deque);
+    }
+    
+    /**
+     * Splice deques together, empty or not, and verify the items and sizes of
+     * both deques: {@code other} must be left empty and still usable.
+     */
+    public void testDequeSplice() {
+        Deque<Integer> deque, other;
+        
+        deque = deque(2);
+        other = new Deque<Integer>();
+        other.addLast(2);
+        other.addLast(3);
+        deque.splice(other);
+        assertItems(Arrays.asList(0, 1, 2, 3), deque);
+        assertItems(Arrays.<Integer>asList(), other);
+        
+        // other is empty: nothing changes.
+        deque.splice(other);
+        assertItems(Arrays.asList(0, 1, 2, 3), deque);
+        assertItems(Arrays.<Integer>asList(), other);
+        
+        // This deque is empty: it takes all the items of other.
+        other.splice(deque);
+        assertItems(Arrays.asList(0, 1, 2, 3), other);
+        assertItems(Arrays.<Integer>asList(), deque);
+        
+        other.addFirst(-1);
+        deque.addLast(4);
+        assertItems(Arrays.asList(-1, 0, 1, 2, 3), other);
+        assertItems(Arrays.asList(4), deque);
+        
+        try {
+            deque.splice(null);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        assertItems(Arrays.asList(4), deque);
+    }
+    
+    /**
+     * Change the deque between creating a stream and its terminal operation,
+     * and verify that the stream sees the items of the changed deque.
+     */
+    public void testDequeStreamIsLateBinding() {
+        Deque<Integer> deque;
+        Stream<Integer> stream;
+        
+        deque = deque(5);
+        stream = deque.stream();
+        deque.removeLast();
+        deque.removeLast();
+        deque.addFirst(-1);
+        assertEquals(Arrays.asList(-1, 0, 1, 2), stream.collect(Collectors.toList()));
+        
+        stream = deque.parallelStream();
+        while (!deque.isEmpty()) {
+            deque.removeFirst();
+        }
+        assertEquals(0, stream.count());
+    }
+    
+    /**
+     * Change the deque in the middle of a traversal and verify that the
+     * spliterator throws ConcurrentModificationException.
+     */
+    public void testDequeSpliteratorIsFailFast() {
+        final Deque<Integer> deque;
+        Spliterator<Integer> spliterator;
+        Consumer<Integer> ignore;
+        
+        deque = deque(5);
+        spliterator = deque.spliterator();
+        ignore = new Consumer<Integer>() {
+            public void accept(Integer item) {
+            }
+        };
+        assertTrue(spliterator.tryAdvance(ignore));
+        deque.removeLast();
+        try {
+            spliterator.tryAdvance(ignore);
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+        
+        spliterator = deque.spliterator();
+        try {
+            spliterator.forEachRemaining(new Consumer<Integer>() {
+                public void accept(Integer item) {
+                    deque.removeLast();
+                }
+            });
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+    }
+    
+    /**
+     * Verify that a parallel stream returns the same items in the same order
+     * as a sequential one.
+     */
+    public void testDequeParallelStream() {
+        Deque<Integer> deque;
+        List<Integer> expected;
+        
+        deque = deque(1000);
+        expected = deque.stream().collect(Collectors.toList());
+        assertEquals(1000, expected.size());
+        assertEquals(expected, deque.parallelStream().collect(Collectors.toList()));
+        assertEquals(999 * 1000 / 2, deque.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+}
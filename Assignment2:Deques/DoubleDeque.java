@@ -0,0 +1,223 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 DoubleDeque.java
+ *  Execution:    java-algs4 DoubleDeque
+ *
+ *  Deque of double values backed by a circular resizing array.
+ *
+ ******************************************************************************/
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code DoubleDeque} class works like {@code ResizingArrayDeque} but
+ * stores {@code double} values. The values are kept in a {@code double[]}, so
+ * adding and removing them never boxes them into {@code Double}s.
+ * <p>
+ * The array is a circular buffer whose length is a power of 2; it doubles
+ * when it is full and halves when it is one quarter full. The iterator is a
+ * {@code PrimitiveIterator.OfDouble}: {@code nextDouble()} returns the values
+ * without boxing them, while a for-each loop over the deque boxes each one.
+ */
+public class DoubleDeque implements Iterable<Double> {
+    private static final int INIT_ARR_SIZE = 8;
+    private double[] arr;
+    // Index of the value at the front.
+    private int head;
+    private int size;
+    
+    /**
+     * Construct an empty {@code DoubleDeque} by initializing internal variables.
+     */
+    public DoubleDeque() {
+        arr = new double[INIT_ARR_SIZE];
+        head = 0;
+        size = 0;
+    }
+    
+    /**
+     * Is the {@code DoubleDeque} empty?
+     * 
+     * @return {@code true} if the {@code deque} is empty.
+     *         {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+    
+    /**
+     * Return the number of values on the {@code DoubleDeque}.
+     * 
+     * @return The number of values on the {@code DoubleDeque}.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Move the values to a new array, the front at index 0.
+     * 
+     * @param capacity The new array size, a power of 2 at least {@code size}.
+     */
+    private void resize(int capacity) {
+        double[] temp;
+        int firstRun;
+        
+        assert capacity >= size && Integer.bitCount(capacity) == 1;
+        
+        temp = new double[capacity];
+        // The values run from head to the end of the array, then wrap around.
+        firstRun = Math.min(size, arr.length - head);
+        System.arraycopy(arr, head, temp, 0, firstRun);
+        System.arraycopy(arr, 0, temp, firstRun, size - firstRun);
+        arr = temp;
+        head = 0;
+    }
+    
+    /**
+     * Add the value to the front of the {@code deque}.
+     * 
+     * @param value  The value to add.
+     */
+    public void addFirst(double value) {
+        if (size == arr.length) {
+            resize(arr.length * 2);
+        }
+        head = (head - 1) & (arr.length - 1);
+        arr[head] = value;
+        size++;
+    }
+    
+    /**
+     * Add the value to the end of the {@code deque}.
+     * 
+     * @param value  The value to add.
+     */
+    public void addLast(double value) {
+        if (size == arr.length) {
+            resize(arr.length * 2);
+        }
+        arr[(head + size) & (arr.length - 1)] = value;
+        size++;
+    }
+    
+    /**
+     * Remove and return the value from the front of the {@code deque}.
+     * 
+     * @return The value at the front.
+     * 
+     * @throws NoSuchElementException If trying to remove a value from an empty
+     *                                {@code deque}.
+     */
+    public double removeFirst() {
+        double value;
+        
+        if (size == 0) {
+            throw new NoSuchElementException("Can't remove a value from empty deque.");
+        }
+        value = arr[head];
+        head = (head + 1) & (arr.length - 1);
+        size--;
+        shrink();
+        
+        return value;
+    }
+    
+    /**
+     * Remove and return the value from the end of the {@code deque}.
+     * 
+     * @return The value at the end.
+     * 
+     * @throws NoSuchElementException If trying to remove a value from an empty
+     *                                {@code deque}.
+     */
+    public double removeLast() {
+        double value;
+        
+        if (size == 0) {
+            throw new NoSuchElementException("Can't remove a value from empty deque.");
+        }
+        value = arr[(head + size - 1) & (arr.length - 1)];
+        size--;
+        shrink();
+        
+        return value;
+    }
+    
+    /**
+     * Halve the array if it is one quarter full.
+     */
+    private void shrink() {
+        if (arr.length > INIT_ARR_SIZE && size == arr.length / 4) {
+            resize(arr.length / 2);
+        }
+    }
+    
+    /**
+     * Return an iterator over values in order from front to end.
+     * 
+     * @return Iterator for this deque.
+     */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new DequeIterator();
+    }
+    
+    /**
+     * The {@code DequeIterator} class implements the {@code hasNext()} and
+     * {@code nextDouble()} methods from the {@code PrimitiveIterator.OfDouble}
+     * interface for the {@code DoubleDeque} class.
+     */
+    private class DequeIterator implements PrimitiveIterator.OfDouble {
+        // # of values returned so far.
+        private int index;
+        
+        public boolean hasNext() {
+            return index < size;
+        }
+        
+        public double nextDouble() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more values to return");
+            }
+            return arr[(head + index++) & (arr.length - 1)];
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException("Remove in the iterator is not supported");
+        }
+    }
+    
+    /**
+     * Some simple unit testing.
+     * 
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        DoubleDeque deque = new DoubleDeque();
+        PrimitiveIterator.OfDouble iterator;
+        
+        deque.addFirst(4);
+        deque.addFirst(3);
+        deque.addFirst(2);
+        deque.addLast(5);
+        StdOut.printf("Size of deque = %d. Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            StdOut.println(iterator.nextDouble());
+        }
+        
+        deque.removeLast();
+        deque.removeFirst();
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            StdOut.println(iterator.nextDouble());
+        }
+        
+        deque.removeLast();
+        deque.removeLast();
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        
+        deque.removeFirst(); // Will throw an exception.
+    }
+}
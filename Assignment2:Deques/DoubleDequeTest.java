@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Run: Open DoubleDeque.java and DoubleDequeTest.java in DrJava and click Test.
+ * 
+ *  Unit tests for the deque of double values.
+ * 
+ ******************************************************************************/
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the DoubleDeque class.
+ */
+public class DoubleDequeTest extends TestCase {
+    
+    /**
+     * Verify that the deque holds the same values in the same order as the
+     * reference one.
+     */
+    private static void assertSameValues(ArrayDeque<Double> expected, DoubleDeque deque) {
+        Iterator<Double> values;
+        PrimitiveIterator.OfDouble iterator;
+        
+        assertEquals(expected.size(), deque.size());
+        assertEquals(expected.isEmpty(), deque.isEmpty());
+        values = expected.iterator();
+        iterator = deque.iterator();
+        while (values.hasNext()) {
+            assertTrue(iterator.hasNext());
+            assertEquals(values.next().doubleValue(), iterator.nextDouble(), 0.0);
+        }
+        assertFalse(iterator.hasNext());
+    }
+    
+    /**
+     * Add values at the front from an empty deque, so the front wraps around
+     * to the end of the array, then add at the end until the array grows, and
+     * verify the order of the values at each step.
+     */
+    public void testDoubleDequeWrapAround() {
+        DoubleDeque deque;
+        ArrayDeque<Double> expected;
+        
+        deque = new DoubleDeque();
+        expected = new ArrayDeque<Double>();
+        for (int i = 0; i < 5; i++) {
+            deque.addFirst(-0.5 * i);
+            expected.addFirst(-0.5 * i);
+            assertSameValues(expected, deque);
+        }
+        // The first 5 values sit at the end of the array, the next ones at
+        // its start; the 9th value doesn't fit and grows the array.
+        for (int i = 1; i <= 12; i++) {
+            deque.addLast(0.25 + i);
+            expected.addLast(0.25 + i);
+            assertSameValues(expected, deque);
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.removeFirst().doubleValue(), deque.removeFirst(), 0.0);
+            if (!expected.isEmpty()) {
+                assertEquals(expected.removeLast().doubleValue(), deque.removeLast(), 0.0);
+            }
+            assertSameValues(expected, deque);
+        }
+    }
+    
+    /**
+     * Grow the deque far past its initial array and shrink it back with
+     * random operations at both ends, checking it against an ArrayDeque.
+     */
+    public void testDoubleDequeResize() {
+        DoubleDeque deque;
+        ArrayDeque<Double> expected;
+        Random random;
+        double value;
+        
+        deque = new DoubleDeque();
+        expected = new ArrayDeque<Double>();
+        random = new Random(22);
+        // Mostly add values, then mostly remove them, so the array doubles and
+        // halves several times with the front anywhere in it.
+        for (int phase = 0; phase < 2; phase++) {
+            for (int i = 0; i < 5000; i++) {
+                if (random.nextInt(4) < 1 + 2 * phase && !expected.isEmpty()) {
+                    if (random.nextBoolean()) {
+                        assertEquals(expected.removeFirst().doubleValue(), deque.removeFirst(), 0.0);
+                    } else {
+                        assertEquals(expected.removeLast().doubleValue(), deque.removeLast(), 0.0);
+                    }
+                } else {
+                    value = random.nextDouble();
+                    if (random.nextBoolean()) {
+                        deque.addFirst(value);
+                        expected.addFirst(value);
+                    } else {
+                        deque.addLast(value);
+                        expected.addLast(value);
+                    }
+                }
+                assertEquals(expected.size(), deque.size());
+            }
+            assertSameValues(expected, deque);
+        }
+    }
+    
+    /**
+     * Verify that removing from an empty deque throws NoSuchElementException.
+     */
+    public void testDoubleDequeRemoveFromEmpty() {
+        DoubleDeque deque;
+        
+        deque = new DoubleDeque();
+        deque.addLast(1);
+        deque.removeLast();
+        try {
+            deque.removeFirst();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.removeLast();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.iterator().nextDouble();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+    }
+}
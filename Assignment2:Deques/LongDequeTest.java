@@ -0,0 +1,135 @@
+/******************************************************************************
+ * Run: Open LongDeque.java and LongDequeTest.java in DrJava and click Test.
+ * 
+ *  Unit tests for the deque of long values.
+ * 
+ ******************************************************************************/
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the LongDeque class.
+ */
+public class LongDequeTest extends TestCase {
+    
+    /**
+     * Verify that the deque holds the same values in the same order as the
+     * reference one.
+     */
+    private static void assertSameValues(ArrayDeque<Long> expected, LongDeque deque) {
+        Iterator<Long> values;
+        PrimitiveIterator.OfLong iterator;
+        
+        assertEquals(expected.size(), deque.size());
+        assertEquals(expected.isEmpty(), deque.isEmpty());
+        values = expected.iterator();
+        iterator = deque.iterator();
+        while (values.hasNext()) {
+            assertTrue(iterator.hasNext());
+            assertEquals(values.next().longValue(), iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+    }
+    
+    /**
+     * Add values at the front from an empty deque, so the front wraps around
+     * to the end of the array, then add at the end until the array grows, and
+     * verify the order of the values at each step.
+     */
+    public void testLongDequeWrapAround() {
+        LongDeque deque;
+        ArrayDeque<Long> expected;
+        
+        deque = new LongDeque();
+        expected = new ArrayDeque<Long>();
+        for (int i = 0; i < 5; i++) {
+            // Past the range of int, so no value is cut to 32 bits.
+            deque.addFirst(-i * (1L << 40));
+            expected.addFirst(-i * (1L << 40));
+            assertSameValues(expected, deque);
+        }
+        // The first 5 values sit at the end of the array, the next ones at
+        // its start; the 9th value doesn't fit and grows the array.
+        for (int i = 1; i <= 12; i++) {
+            deque.addLast(Integer.MAX_VALUE + (long) i);
+            expected.addLast(Integer.MAX_VALUE + (long) i);
+            assertSameValues(expected, deque);
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.removeFirst().longValue(), deque.removeFirst());
+            if (!expected.isEmpty()) {
+                assertEquals(expected.removeLast().longValue(), deque.removeLast());
+            }
+            assertSameValues(expected, deque);
+        }
+    }
+    
+    /**
+     * Grow the deque far past its initial array and shrink it back with
+     * random operations at both ends, checking it against an ArrayDeque.
+     */
+    public void testLongDequeResize() {
+        LongDeque deque;
+        ArrayDeque<Long> expected;
+        Random random;
+        long value;
+        
+        deque = new LongDeque();
+        expected = new ArrayDeque<Long>();
+        random = new Random(22);
+        // Mostly add values, then mostly remove them, so the array doubles and
+        // halves several times with the front anywhere in it.
+        for (int phase = 0; phase < 2; phase++) {
+            for (int i = 0; i < 5000; i++) {
+                if (random.nextInt(4) < 1 + 2 * phase && !expected.isEmpty()) {
+                    if (random.nextBoolean()) {
+                        assertEquals(expected.removeFirst().longValue(), deque.removeFirst());
+                    } else {
+                        assertEquals(expected.removeLast().longValue(), deque.removeLast());
+                    }
+                } else {
+                    value = random.nextLong();
+                    if (random.nextBoolean()) {
+                        deque.addFirst(value);
+                        expected.addFirst(value);
+                    } else {
+                        deque.addLast(value);
+                        expected.addLast(value);
+                    }
+                }
+                assertEquals(expected.size(), deque.size());
+            }
+            assertSameValues(expected, deque);
+        }
+    }
+    
+    /**
+     * Verify that removing from an empty deque throws NoSuchElementException.
+     */
+    public void testLongDequeRemoveFromEmpty() {
+        LongDeque deque;
+        
+        deque = new LongDeque();
+        deque.addLast(1);
+        deque.removeLast();
+        try {
+            deque.removeFirst();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.removeLast();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.iterator().nextLong();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+    }
+}
@@ -5,8 +5,14 @@
  *  Deque data type.
  * 
  ******************************************************************************/
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdOut;
 //import java.util.Arrays; akg
@@ -23,6 +29,8 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     private static final int INIT_ARR_SIZE = 2;
     private Item[] arr;
     private int size;
+    // # of changes to the items, for the spliterator to detect them.
+    private int modCount;
     
     /**
      * Construct an empty {@code RandomizedQueue} by initializing internal variables.
@@ -81,6 +89,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             resize(arr.length * 2);
         }
         arr[size++] = item;
+        modCount++;
     }
     
     /**
@@ -111,6 +120,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         // Clear the last item.
         arr[size - 1] = null;
         size--;     
+        modCount++;
         
         // Shrink if needed.
         if (size > 0 && size == arr.length/4) {
@@ -202,6 +212,188 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         }
     }
     
+    /**
+     * Return a {@code Spliterator} over items in a random order, like
+     * {@link #iterator()}. The {@code Spliterator} reports its exact size and
+     * splits its range of items in half, in constant time: nothing is
+     * shuffled up front. Each part shuffles the indexes of its own items when
+     * it starts to traverse them, with its own {@code SplittableRandom} split
+     * off at {@code trySplit}, so the parts of a parallel stream shuffle at
+     * the same time. The first one is seeded from {@code StdRandom}.
+     * <p>
+     * A sequential stream is thus a uniformly random order of all the items,
+     * like the iterator. A parallel stream has no order: each part is a random
+     * order of its half, quarter, ... of the array.
+     * <p>
+     * As in {@code Deque}, the spliterator is late-binding: it reads the
+     * array and the # of items on its first {@code tryAdvance},
+     * {@code forEachRemaining}, {@code trySplit} or {@code estimateSize}, not
+     * when it is created. After that it is fail-fast: it throws
+     * {@code ConcurrentModificationException} on the next item if the
+     * {@code RandomizedQueue} was changed since, instead of returning items
+     * already dequeued or missing items enqueued.
+     * 
+     * @return Spliterator for this {@code RandomizedQueue}.
+     */
+    public Spliterator<Item> spliterator() {
+        long seed;
+        
+        // Seed from StdRandom, so StdRandom.setSeed() still makes the order
+        // reproducible; two draws give 62 random bits.
+        seed = (long) StdRandom.uniform(Integer.MAX_VALUE) << 31 | StdRandom.uniform(Integer.MAX_VALUE);
+        
+        return new RandomizedQueueSpliterator(new SplittableRandom(seed));
+    }
+    
+    /**
+     * Return a sequential {@code Stream} of the items in a random order.
+     * 
+     * @return Stream of the items of this {@code RandomizedQueue}.
+     */
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Return a parallel {@code Stream} of the items in a random order.
+     * 
+     * @return Parallel stream of the items of this {@code RandomizedQueue}.
+     */
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
+    /**
+     * The {@code RandomizedQueueSpliterator} class implements the
+     * {@code Spliterator} interface for the {@code RandomizedQueue} class over
+     * the items at the indexes {@code [index, end)}, visited in a random
+     * order. It isn't {@code ORDERED}: the order of the items is random.
+     */
+    private class RandomizedQueueSpliterator implements Spliterator<Item> {
+        private Item[] items;
+        private final SplittableRandom random;
+        // The shuffled indexes of the items, null until the traversal starts;
+        // index and end are then positions in this array.
+        private int[] shuffleArr;
+        private int index;
+        // -1 until the spliterator is bound to the items of the queue.
+        private int end;
+        private int expectedModCount;
+        
+        /**
+         * Construct a spliterator over all the items, bound on first use.
+         */
+        public RandomizedQueueSpliterator(SplittableRandom random) {
+            this.random = random;
+            end = -1;
+        }
+        
+        /**
+         * Construct a spliterator over the items at the indexes
+         * {@code [index, end)}, split off a bound one.
+         */
+        public RandomizedQueueSpliterator(Item[] items, SplittableRandom random, int index, int end,
+                                          int expectedModCount) {
+            this.items = items;
+            this.random = random;
+            this.index = index;
+            this.end = end;
+            this.expectedModCount = expectedModCount;
+        }
+        
+        /**
+         * Bind the spliterator to the items of the queue if it isn't yet.
+         * 
+         * @return The end of the range of items.
+         */
+        private int end() {
+            if (end < 0) {
+                items = arr;
+                end = size;
+                expectedModCount = modCount;
+            }
+            return end;
+        }
+        
+        /**
+         * Check that the queue wasn't changed since the spliterator was bound.
+         * 
+         * @throws ConcurrentModificationException if the queue was changed
+         *                                         since the spliterator was
+         *                                         bound.
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException("The queue was changed during the traversal");
+            }
+        }
+        
+        /**
+         * Shuffle the indexes of the items left, the first time only.
+         */
+        private void shuffleArray() {
+            int j, swap;
+            
+            if (shuffleArr != null) {
+                return;
+            }
+            shuffleArr = new int[end - index];
+            for (int i = 0; i < shuffleArr.length; i++) {
+                shuffleArr[i] = index + i;
+            }
+            // Fisher-Yates shuffle with the random numbers of this part.
+            for (int i = shuffleArr.length - 1; i > 0; i--) {
+                j = random.nextInt(i + 1);
+                swap = shuffleArr[i];
+                shuffleArr[i] = shuffleArr[j];
+                shuffleArr[j] = swap;
+            }
+            index = 0;
+            end = shuffleArr.length;
+        }
+        
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (index >= end()) {
+                return false;
+            }
+            checkForComodification();
+            shuffleArray();
+            action.accept(items[shuffleArr[index++]]);
+            return true;
+        }
+        
+        public void forEachRemaining(Consumer<? super Item> action) {
+            end();
+            shuffleArray();
+            for (; index < end; index++) {
+                checkForComodification();
+                action.accept(items[shuffleArr[index]]);
+            }
+        }
+        
+        public Spliterator<Item> trySplit() {
+            int start;
+            
+            // Once the traversal started the items left are in a random
+            // order, not a range of indexes.
+            if (shuffleArr != null || end() - index < 2) {
+                return null;
+            }
+            start = index;
+            index = (index + end) >>> 1;
+            
+            return new RandomizedQueueSpliterator(items, random.split(), start, index, expectedModCount);
+        }
+        
+        public long estimateSize() {
+            return end() - index;
+        }
+        
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+    
     /**
      * Some simple unit testing. (Lack of time always equals to skipping unit testing).
      * 
@@ -224,6 +416,8 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         for (String s : randomizedQueue) {
             StdOut.println(s);
         }
+        StdOut.printf("Total length of the items = %d\n",
+                      randomizedQueue.parallelStream().mapToInt(String::length).sum());
 
         randomizedQueue.dequeue();
         StdOut.printf("Size of deque = %d.  Is it empty? %s\n",
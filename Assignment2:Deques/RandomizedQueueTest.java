@@ -0,0 +1,153 @@
+/******************************************************************************
+ * Run: Open RandomizedQueue.java and RandomizedQueueTest.java in DrJava and
+ *      click Test.
+ * 
+ *  Unit tests for the streams of the randomized queue.
+ * 
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import edu.princeton.cs.algs4.StdRandom;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the RandomizedQueue class.
+ */
+public class RandomizedQueueTest extends TestCase {
+    
+    /**
+     * Verify that the list holds each of the integers in {@code [0, n)}
+     * exactly once.
+     */
+    private static void assertEachOnce(List<Integer> items, int n) {
+        boolean[] seen;
+        
+        assertEquals(n, items.size());
+        seen = new boolean[n];
+        for (int item : items) {
+            assertFalse(seen[item]);
+            seen[item] = true;
+        }
+    }
+    
+    /**
+     * Verify that sequential and parallel streams return each item exactly
+     * once, and that the sequential order follows the seed of StdRandom.
+     */
+    public void testRandomizedQueueStream() {
+        RandomizedQueue<Integer> queue;
+        List<Integer> first, second;
+        
+        queue = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+        StdRandom.setSeed(25);
+        first = queue.stream().collect(Collectors.toList());
+        StdRandom.setSeed(25);
+        second = queue.stream().collect(Collectors.toList());
+        assertEquals(first, second);
+        assertEachOnce(first, 1000);
+        assertEachOnce(queue.parallelStream().collect(Collectors.toList()), 1000);
+        assertEquals(999 * 1000 / 2, queue.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+    
+    /**
+     * Return a queue of the integers in {@code [0, n)}.
+     */
+    private static RandomizedQueue<Integer> queue(int n) {
+        RandomizedQueue<Integer> queue;
+        
+        queue = new RandomizedQueue<Integer>();
+        for (int i = 0; i < n; i++) {
+            queue.enqueue(i);
+        }
+        return queue;
+    }
+    
+    /**
+     * Change the queue between creating a stream and its terminal operation,
+     * and verify that the stream returns exactly the items left: none of the
+     * dequeued ones, no nulls, and the ones enqueued since.
+     */
+    public void testRandomizedQueueStreamIsLateBinding() {
+        RandomizedQueue<Integer> queue;
+        Stream<Integer> stream;
+        List<Integer> left, streamed;
+        
+        queue = queue(8);
+        stream = queue.stream();
+        for (int i = 0; i < 6; i++) {
+            queue.dequeue();
+        }
+        assertEquals(2, queue.size());
+        left = new ArrayList<Integer>();
+        for (int item : queue) {
+            left.add(item);
+        }
+        streamed = stream.collect(Collectors.toList());
+        assertFalse(streamed.contains(null));
+        Collections.sort(left);
+        Collections.sort(streamed);
+        assertEquals(left, streamed);
+        
+        queue = queue(3);
+        stream = queue.parallelStream();
+        queue.enqueue(99);
+        streamed = stream.collect(Collectors.toList());
+        Collections.sort(streamed);
+        assertEquals(Arrays.asList(0, 1, 2, 99), streamed);
+    }
+    
+    /**
+     * Change the queue in the middle of a traversal and verify that the
+     * spliterator throws ConcurrentModificationException.
+     */
+    public void testRandomizedQueueSpliteratorIsFailFast() {
+        final RandomizedQueue<Integer> queue;
+        Spliterator<Integer> spliterator, prefix;
+        Consumer<Integer> ignore;
+        
+        queue = queue(8);
+        ignore = new Consumer<Integer>() {
+            public void accept(Integer item) {
+            }
+        };
+        spliterator = queue.spliterator();
+        assertTrue(spliterator.tryAdvance(ignore));
+        queue.enqueue(8);
+        try {
+            spliterator.tryAdvance(ignore);
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+        
+        // A part split off before the change must notice it too.
+        spliterator = queue.spliterator();
+        prefix = spliterator.trySplit();
+        queue.dequeue();
+        try {
+            prefix.forEachRemaining(ignore);
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+        
+        spliterator = queue.spliterator();
+        try {
+            spliterator.forEachRemaining(new Consumer<Integer>() {
+                public void accept(Integer item) {
+                    queue.dequeue();
+                }
+            });
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 ResizingArrayDeque.java
+ *  Execution:    java-algs4 ResizingArrayDeque
+ *
+ *  Deque data type backed by a circular resizing array.
+ *
+ ******************************************************************************/
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code ResizingArrayDeque} class supports the same operations as
+ * {@code Deque}, adding and removing items at either the front or the back,
+ * but keeps the items in one array used as a circular buffer instead of a
+ * linked list of nodes.
+ * <p>
+ * The front of the deque is at index {@code head} and the items follow it,
+ * wrapping around to index 0 past the end of the array. The length of the
+ * array is always a power of 2, so the index of the item {@code i} places
+ * after the front is {@code (head + i) & (length - 1)}, with no division.
+ * The array doubles when it is full and halves when it is one quarter full,
+ * so each operation takes constant amortized time, and adding and removing
+ * at a steady size allocates nothing. The iterator reads the array in order,
+ * at most two contiguous runs.
+ */
+public class ResizingArrayDeque<Item> implements Iterable<Item> {
+    private static final int INIT_ARR_SIZE = 8;
+    private Item[] arr;
+    // Index of the item at the front.
+    private int head;
+    private int size;
+    // # of changes to the items, for the spliterator to detect them.
+    private int modCount;
+    
+    /**
+     * Construct an empty {@code ResizingArrayDeque} by initializing internal
+     * variables.
+     */
+    @SuppressWarnings("unchecked")
+    public ResizingArrayDeque() {
+        arr = (Item[]) new Object[INIT_ARR_SIZE];
+        head = 0;
+        size = 0;
+    }
+    
+    /**
+     * Is the {@code ResizingArrayDeque} empty?
+     * 
+     * @return {@code true} if the {@code deque} is empty.
+     *         {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+    
+    /**
+     * Return the number of items on the {@code ResizingArrayDeque}.
+     * 
+     * @return The number of items on the {@code ResizingArrayDeque}.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Move the items to a new array, the front at index 0.
+     * 
+     * @param capacity The new array size, a power of 2 at least {@code size}.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        Item[] temp;
+        int firstRun;
+        
+        assert capacity >= size && Integer.bitCount(capacity) == 1;
+        
+        temp = (Item[]) new Object[capacity];
+        // The items run from head to the end of the array, then wrap around.
+        firstRun = Math.min(size, arr.length - head);
+        System.arraycopy(arr, head, temp, 0, firstRun);
+        System.arraycopy(arr, 0, temp, firstRun, size - firstRun);
+        arr = temp;
+        head = 0;
+    }
+    
+    /**
+     * Add the item to the front of the {@code deque}.
+     * 
+     * @param item  The item to add.
+     * 
+     * @throws IllegalArgumentException if {@code item == null}.
+     */
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item can't be added");
+        }
+        if (size == arr.length) {
+            resize(arr.length * 2);
+        }
+        head = (head - 1) & (arr.length - 1);
+        arr[head] = item;
+        size++;
+        modCount++;
+    }
+    
+    /**
+     * Add the item to the end of the {@code deque}.
+     * 
+     * @param item  The item to add.
+     * 
+     * @throws IllegalArgumentException if {@code item == null}.
+     */
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item can't be added");
+        }
+        if (size == arr.length) {
+            resize(arr.length * 2);
+        }
+        arr[(head + size) & (arr.length - 1)] = item;
+        size++;
+        modCount++;
+    }
+    
+    /**
+     * Remove and return the item from the front of the {@code deque}.
+     * 
+     * @return The item at the front.
+     * 
+     * @throws NoSuchElementException If trying to remove an item from an empty
+     *                                {@code deque}.
+     */
+    public Item removeFirst() {
+        Item item;
+        
+        if (size == 0) {
+            throw new NoSuchElementException("Can't remove an item from empty deque.");
+        }
+        item = arr[head];
+        
+        // Clear the slot so the item can be garbage collected.
+        arr[head] = null;
+        head = (head + 1) & (arr.length - 1);
+        size--;
+        modCount++;
+        shrink();
+        
+        return item;
+    }
+    
+    /**
+     * Remove and return the item from the end of the {@code deque}.
+     * 
+     * @return The item at the end.
+     * 
+     * @throws NoSuchElementException If trying to remove an item from an empty
+     *                                {@code deque}.
+     */
+    public Item removeLast() {
+        Item item;
+        int index;
+        
+        if (size == 0) {
+            throw new NoSuchElementException("Can't remove an item from empty deque.");
+        }
+        index = (head + size - 1) & (arr.length - 1);
+        item = arr[index];
+        
+        // Clear the slot so the item can be garbage collected.
+        arr[index] = null;
+        size--;
+        modCount++;
+        shrink();
+        
+        return item;
+    }
+    
+    /**
+     * Halve the array if it is one quarter full. Growing again takes as many
+     * adds as there were removes since the last resize, so the cost of copying
+     * stays constant amortized.
+     */
+    private void shrink() {
+        if (arr.length > INIT_ARR_SIZE && size == arr.length / 4) {
+            resize(arr.length / 2);
+        }
+    }
+    
+    /**
+     * Return an iterator over items in order from front to end.
+     * 
+     * @return Iterator for this deque.
+     */
+    public Iterator<Item> iterator() {
+        return new DequeIterator();
+    }
+    
+    /**
+     * The {@code DequeIterator} class implements the {@code hasNext()} and
+     * {@code next} methods from the {@code Iterator} interface for the
+     * {@code ResizingArrayDeque} class.
+     */
+    private class DequeIterator implements Iterator<Item> {
+        // # of items returned so far.
+        private int index;
+        
+        public boolean hasNext() {
+            return index < size;
+        }
+        
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more items to return");
+            }
+            return arr[(head + index++) & (arr.length - 1)];
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException("Remove in the iterator is not supported");
+        }
+    }
+    
+    /**
+     * Return a {@code Spliterator} over items in order from front to end. It
+     * reports its exact size and splits its range of indexes in half.
+     * <p>
+     * As in {@code Deque}, the spliterator is late-binding: it reads the
+     * array, the front and the # of items on its first {@code tryAdvance},
+     * {@code forEachRemaining}, {@code trySplit} or {@code estimateSize}, not
+     * when it is created. After that it is fail-fast: it throws
+     * {@code ConcurrentModificationException} on the next item if the
+     * {@code deque} was changed since, instead of reading cleared or moved
+     * slots.
+     * 
+     * @return Spliterator for this deque.
+     */
+    public Spliterator<Item> spliterator() {
+        return new DequeSpliterator();
+    }
+    
+    /**
+     * Return a sequential {@code Stream} of the items in order from front to
+     * end.
+     * 
+     * @return Stream of the items of this deque.
+     */
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Return a parallel {@code Stream} of the items in order from front to
+     * end.
+     * 
+     * @return Parallel stream of the items of this deque.
+     */
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
+    /**
+     * The {@code DequeSpliterator} class implements the {@code Spliterator}
+     * interface for the {@code ResizingArrayDeque} class over the items
+     * {@code [index, end)} places after the front at {@code items[front]}.
+     */
+    private class DequeSpliterator implements Spliterator<Item> {
+        private Item[] items;
+        private int front;
+        private int index;
+        // -1 until the spliterator is bound to the items of the deque.
+        private int end;
+        private int expectedModCount;
+        
+        /**
+         * Construct a spliterator over all the items, bound on first use.
+         */
+        public DequeSpliterator() {
+            end = -1;
+        }
+        
+        /**
+         * Construct a spliterator over the items {@code [index, end)}, split
+         * off a bound one.
+         */
+        public DequeSpliterator(Item[] items, int front, int index, int end, int expectedModCount) {
+            this.items = items;
+            this.front = front;
+            this.index = index;
+            this.end = end;
+            this.expectedModCount = expectedModCount;
+        }
+        
+        /**
+         * Bind the spliterator to the items of the deque if it isn't yet.
+         * 
+         * @return The end of the range of items.
+         */
+        private int end() {
+            if (end < 0) {
+                items = arr;
+                front = head;
+                end = size;
+                expectedModCount = modCount;
+            }
+            return end;
+        }
+        
+        /**
+         * Check that the deque wasn't changed since the spliterator was bound.
+         * 
+         * @throws ConcurrentModificationException if the deque was changed
+         *                                         since the spliterator was
+         *                                         bound.
+         */
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException("The deque was changed during the traversal");
+            }
+        }
+        
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (index >= end()) {
+                return false;
+            }
+            checkForComodification();
+            action.accept(items[(front + index++) & (items.length - 1)]);
+            return true;
+        }
+        
+        public void forEachRemaining(Consumer<? super Item> action) {
+            for (end(); index < end; index++) {
+                checkForComodification();
+                action.accept(items[(front + index) & (items.length - 1)]);
+            }
+        }
+        
+        public Spliterator<Item> trySplit() {
+            int start;
+            
+            if (end() - index < 2) {
+                return null;
+            }
+            start = index;
+            index = (index + end) >>> 1;
+            
+            return new DequeSpliterator(items, front, start, index, expectedModCount);
+        }
+        
+        public long estimateSize() {
+            return end() - index;
+        }
+        
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+    
+    /**
+     * Some simple unit testing.
+     * 
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        ResizingArrayDeque<String> deque = new ResizingArrayDeque<String>();
+        
+        deque.addFirst("fourth");
+        deque.addFirst("third");
+        deque.addFirst("second");
+        deque.addLast("fifth");
+        StdOut.printf("Size of deque = %d. Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+        
+        // Wrap around the end of the array and grow it.
+        for (int i = 0; i < 20; i++) {
+            deque.addFirst("first " + i);
+        }
+        for (int i = 0; i < 20; i++) {
+            deque.removeFirst();
+        }
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+        StdOut.printf("Total length of the items = %d\n", deque.parallelStream().mapToInt(String::length).sum());
+        
+        deque.removeLast();
+        deque.removeFirst();
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        for (String s : deque) {
+            StdOut.println(s);
+        }
+        
+        deque.removeLast();
+        deque.removeLast();
+        StdOut.printf("Size of deque = %d.  Is it empty? %s\n", deque.size(), deque.isEmpty() ? "Yes" : "No");
+        
+        deque.removeFirst(); // Will throw an exception.
+    }
+}
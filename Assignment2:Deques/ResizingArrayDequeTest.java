@@ -0,0 +1,311 @@
+/******************************************************************************
+ * Run: Open ResizingArrayDeque.java and ResizingArrayDequeTest.java in DrJava
+ *      and click Test.
+ * 
+ *  Unit tests for the resizing array deque and its streams.
+ * 
+ ******************************************************************************/
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import junit.framework.TestCase;
+
+/**
+ * A JUnit test case class for the ResizingArrayDeque class.
+ */
+public class ResizingArrayDequeTest extends TestCase {
+    
+    /**
+     * Return a deque of the integers in {@code [0, n)}, in order.
+     */
+    private static ResizingArrayDeque<Integer> deque(int n) {
+        ResizingArrayDeque<Integer> deque;
+        
+        deque = new ResizingArrayDeque<Integer>();
+        for (int i = 0; i < n; i++) {
+            deque.addLast(i);
+        }
+        return deque;
+    }
+    
+    /**
+     * Verify that the deque holds the same items in the same order as the
+     * reference one.
+     */
+    private static void assertSameItems(ArrayDeque<Integer> expected, ResizingArrayDeque<Integer> deque) {
+        Iterator<Integer> items, iterator;
+        
+        assertEquals(expected.size(), deque.size());
+        assertEquals(expected.isEmpty(), deque.isEmpty());
+        items = expected.iterator();
+        iterator = deque.iterator();
+        while (items.hasNext()) {
+            assertTrue(iterator.hasNext());
+            assertEquals(items.next(), iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+    
+    /**
+     * Add items at the front of an empty deque, so the front wraps around
+     * from index 0 to the end of the array, then remove them from the front
+     * so it wraps back to index 0; then the same at the end of the items.
+     */
+    public void testResizingArrayDequeWrapAround() {
+        ResizingArrayDeque<Integer> deque;
+        ArrayDeque<Integer> expected;
+        
+        deque = new ResizingArrayDeque<Integer>();
+        expected = new ArrayDeque<Integer>();
+        for (int i = 0; i < 6; i++) {
+            deque.addFirst(-i);
+            expected.addFirst(-i);
+            assertSameItems(expected, deque);
+        }
+        deque.addLast(1);
+        expected.addLast(1);
+        assertSameItems(expected, deque);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(expected.removeFirst(), deque.removeFirst());
+            assertSameItems(expected, deque);
+        }
+        
+        // The front is back at index 0. Move it to index 5, add at the end
+        // past index 7 so the items wrap around to index 0, then remove from
+        // the end back past it.
+        for (int i = 2; i <= 7; i++) {
+            deque.addLast(i);
+            expected.addLast(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected.removeFirst(), deque.removeFirst());
+        }
+        for (int i = 8; i <= 10; i++) {
+            deque.addLast(i);
+            expected.addLast(i);
+            assertSameItems(expected, deque);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected.removeLast(), deque.removeLast());
+            assertSameItems(expected, deque);
+        }
+    }
+    
+    /**
+     * Fill the array with the front in its middle and the items wrapping
+     * around, then add more at both ends so it grows, and verify that the
+     * items keep their order.
+     */
+    public void testResizingArrayDequeGrow() {
+        ResizingArrayDeque<Integer> deque;
+        ArrayDeque<Integer> expected;
+        
+        deque = new ResizingArrayDeque<Integer>();
+        expected = new ArrayDeque<Integer>();
+        // Move the front to index 5 first.
+        for (int i = 0; i < 5; i++) {
+            deque.addLast(-1);
+            deque.removeFirst();
+        }
+        for (int i = 0; i < 8; i++) {
+            deque.addLast(i);
+            expected.addLast(i);
+        }
+        assertSameItems(expected, deque);
+        for (int i = 1; i <= 20; i++) {
+            if (i % 2 == 0) {
+                deque.addFirst(-i);
+                expected.addFirst(-i);
+            } else {
+                deque.addLast(7 + i);
+                expected.addLast(7 + i);
+            }
+            assertSameItems(expected, deque);
+        }
+    }
+    
+    /**
+     * Grow the deque to 64 items, then remove them from both ends so the
+     * array halves each time it gets one quarter full, and verify that the
+     * items keep their order through each shrink.
+     */
+    public void testResizingArrayDequeShrink() {
+        ResizingArrayDeque<Integer> deque;
+        ArrayDeque<Integer> expected;
+        
+        deque = new ResizingArrayDeque<Integer>();
+        expected = new ArrayDeque<Integer>();
+        for (int i = 0; i < 64; i++) {
+            if (i % 3 == 0) {
+                deque.addFirst(i);
+                expected.addFirst(i);
+            } else {
+                deque.addLast(i);
+                expected.addLast(i);
+            }
+        }
+        while (!expected.isEmpty()) {
+            if (expected.size() % 2 == 0) {
+                assertEquals(expected.removeFirst(), deque.removeFirst());
+            } else {
+                assertEquals(expected.removeLast(), deque.removeLast());
+            }
+            assertSameItems(expected, deque);
+        }
+        
+        // The deque is still usable once empty.
+        deque.addFirst(1);
+        deque.addLast(2);
+        assertEquals(Arrays.asList(1, 2), deque.stream().collect(Collectors.toList()));
+    }
+    
+    /**
+     * Add and remove items at random ends while the deque holds about the
+     * same # of items, so the front moves all around the array without it
+     * resizing, and check it against an ArrayDeque.
+     */
+    public void testResizingArrayDequeSteadySize() {
+        ResizingArrayDeque<Integer> deque;
+        ArrayDeque<Integer> expected;
+        Random random;
+        
+        deque = deque(6);
+        expected = new ArrayDeque<Integer>(Arrays.asList(0, 1, 2, 3, 4, 5));
+        random = new Random(21);
+        for (int i = 0; i < 10000; i++) {
+            if (random.nextBoolean()) {
+                deque.addFirst(i);
+                expected.addFirst(i);
+            } else {
+                deque.addLast(i);
+                expected.addLast(i);
+            }
+            if (random.nextBoolean()) {
+                assertEquals(expected.removeFirst(), deque.removeFirst());
+            } else {
+                assertEquals(expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(6, deque.size());
+        }
+        assertSameItems(expected, deque);
+    }
+    
+    /**
+     * Verify that removing from an empty deque throws NoSuchElementException,
+     * and that a null item can't be added.
+     */
+    public void testResizingArrayDequeEmpty() {
+        ResizingArrayDeque<Integer> deque;
+        
+        deque = deque(1);
+        deque.removeFirst();
+        try {
+            deque.removeFirst();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.removeLast();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.iterator().next();
+            fail();
+        } catch (final NoSuchElementException e) {
+        }
+        try {
+            deque.addFirst(null);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        try {
+            deque.addLast(null);
+            fail();
+        } catch (final IllegalArgumentException e) {
+        }
+        assertTrue(deque.isEmpty());
+    }
+    
+    /**
+     * Change the deque between creating a stream and its terminal operation,
+     * and verify that the stream sees the items of the changed deque: no
+     * cleared slots after removing items, and the new array after it grows.
+     */
+    public void testResizingArrayDequeStreamIsLateBinding() {
+        ResizingArrayDeque<Integer> deque;
+        Stream<Integer> stream;
+        
+        deque = deque(5);
+        stream = deque.stream();
+        deque.removeLast();
+        deque.removeLast();
+        assertEquals(Arrays.asList(0, 1, 2), stream.collect(Collectors.toList()));
+        
+        // Wrap around the end of the array, then grow it.
+        stream = deque.parallelStream();
+        for (int i = 1; i <= 6; i++) {
+            deque.addFirst(-i);
+        }
+        assertEquals(9, deque.size());
+        assertEquals(Arrays.asList(-6, -5, -4, -3, -2, -1, 0, 1, 2), stream.collect(Collectors.toList()));
+    }
+    
+    /**
+     * Change the deque in the middle of a traversal and verify that the
+     * spliterator throws ConcurrentModificationException.
+     */
+    public void testResizingArrayDequeSpliteratorIsFailFast() {
+        final ResizingArrayDeque<Integer> deque;
+        Spliterator<Integer> spliterator;
+        Consumer<Integer> ignore;
+        
+        deque = deque(5);
+        spliterator = deque.spliterator();
+        ignore = new Consumer<Integer>() {
+            public void accept(Integer item) {
+            }
+        };
+        assertTrue(spliterator.tryAdvance(ignore));
+        deque.removeLast();
+        try {
+            spliterator.tryAdvance(ignore);
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+        
+        spliterator = deque.spliterator();
+        try {
+            spliterator.forEachRemaining(new Consumer<Integer>() {
+                public void accept(Integer item) {
+                    deque.removeLast();
+                }
+            });
+            fail();
+        } catch (final ConcurrentModificationException e) {
+        }
+    }
+    
+    /**
+     * Verify that a parallel stream returns the same items in the same order
+     * as a sequential one.
+     */
+    public void testResizingArrayDequeParallelStream() {
+        ResizingArrayDeque<Integer> deque;
+        List<Integer> expected;
+        
+        deque = deque(1000);
+        expected = deque.stream().collect(Collectors.toList());
+        assertEquals(1000, expected.size());
+        assertEquals(expected, deque.parallelStream().collect(Collectors.toList()));
+        assertEquals(999 * 1000 / 2, deque.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+}
@@ -0,0 +1,152 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/ConcurrentDequeBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.ConcurrentDequeBenchmark
+ *
+ *  Multi-threaded JMH benchmark of ConcurrentDeque against a locked Deque.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code ConcurrentDequeBenchmark} class measures the throughput of
+ * 16 threads sharing one deque, each adding an item at one end and removing
+ * one from the front, first on a {@code Deque} guarded by a single lock, then
+ * on a {@code ConcurrentDeque}. Adding at the end and removing from the front
+ * is a work queue, the threads meeting at both ends; adding and removing at
+ * the front is a stack, all threads contending for the same end. Run with
+ * {@code -t} to change the # of threads.
+ * <p>
+ * Each deque is filled with {@code size} items up front, at least one per
+ * thread, so a remove never finds it empty.
+ * <p>
+ * As in {@code DequeBenchmark}, the deques are reached through
+ * {@code static final} method handles, since JMH doesn't accept benchmarks in
+ * the default package.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class ConcurrentDequeBenchmark {
+    private static final Object ITEM = "item";
+    private static final MethodHandle NEW_DEQUE, DEQUE_ADD_FIRST, DEQUE_ADD_LAST, DEQUE_REMOVE_FIRST;
+    private static final MethodHandle NEW_CONCURRENT, CONCURRENT_ADD_FIRST, CONCURRENT_ADD_LAST,
+                                      CONCURRENT_REMOVE_FIRST;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> deque, concurrent;
+        MethodType add, remove, addType, removeType, newType;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            deque = Class.forName("Deque");
+            concurrent = Class.forName("ConcurrentDeque");
+            add = MethodType.methodType(void.class, Object.class);
+            remove = MethodType.methodType(Object.class);
+            newType = MethodType.methodType(Object.class);
+            addType = MethodType.methodType(void.class, Object.class, Object.class);
+            removeType = MethodType.methodType(Object.class, Object.class);
+            NEW_DEQUE = lookup.findConstructor(deque, MethodType.methodType(void.class))
+                              .asType(newType);
+            DEQUE_ADD_FIRST = lookup.findVirtual(deque, "addFirst", add).asType(addType);
+            DEQUE_ADD_LAST = lookup.findVirtual(deque, "addLast", add).asType(addType);
+            DEQUE_REMOVE_FIRST = lookup.findVirtual(deque, "removeFirst", remove).asType(removeType);
+            NEW_CONCURRENT = lookup.findConstructor(concurrent, MethodType.methodType(void.class))
+                                   .asType(newType);
+            CONCURRENT_ADD_FIRST = lookup.findVirtual(concurrent, "addFirst", add).asType(addType);
+            CONCURRENT_ADD_LAST = lookup.findVirtual(concurrent, "addLast", add).asType(addType);
+            CONCURRENT_REMOVE_FIRST = lookup.findVirtual(concurrent, "removeFirst", remove)
+                                            .asType(removeType);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"1024"})
+    public int size;
+    
+    private Object lockedDeque;
+    private Object concurrentDeque;
+    
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        lockedDeque = (Object) NEW_DEQUE.invokeExact();
+        concurrentDeque = (Object) NEW_CONCURRENT.invokeExact();
+        for (int i = 0; i < size; i++) {
+            DEQUE_ADD_LAST.invokeExact(lockedDeque, ITEM);
+            CONCURRENT_ADD_LAST.invokeExact(concurrentDeque, ITEM);
+        }
+    }
+    
+    @Benchmark
+    public Object lockedQueue() throws Throwable {
+        // Lock each operation on its own, as a synchronized wrapper would.
+        synchronized (lockedDeque) {
+            DEQUE_ADD_LAST.invokeExact(lockedDeque, ITEM);
+        }
+        synchronized (lockedDeque) {
+            return (Object) DEQUE_REMOVE_FIRST.invokeExact(lockedDeque);
+        }
+    }
+    
+    @Benchmark
+    public Object lockedStack() throws Throwable {
+        synchronized (lockedDeque) {
+            DEQUE_ADD_FIRST.invokeExact(lockedDeque, ITEM);
+        }
+        synchronized (lockedDeque) {
+            return (Object) DEQUE_REMOVE_FIRST.invokeExact(lockedDeque);
+        }
+    }
+    
+    @Benchmark
+    public Object concurrentQueue() throws Throwable {
+        CONCURRENT_ADD_LAST.invokeExact(concurrentDeque, ITEM);
+        return (Object) CONCURRENT_REMOVE_FIRST.invokeExact(concurrentDeque);
+    }
+    
+    @Benchmark
+    public Object concurrentStack() throws Throwable {
+        CONCURRENT_ADD_FIRST.invokeExact(concurrentDeque, ITEM);
+        return (Object) CONCURRENT_REMOVE_FIRST.invokeExact(concurrentDeque);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(ConcurrentDequeBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("concurrent-deque-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,136 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/DequeBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.DequeBenchmark
+ *
+ *  JMH benchmark of the Deque data type.
+ * 
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code DequeBenchmark} class measures the throughput of the four
+ * combinations of adding an item at one end of a {@code Deque} and removing one
+ * from either end, and of iterating over the whole {@code Deque}.
+ * <p>
+ * The {@code Deque} is filled with {@code size} items up front, so each
+ * add/remove pair runs on a {@code Deque} of steady size.
+ * <p>
+ * JMH doesn't accept benchmarks in the default package, and classes in a named
+ * package can't refer to the default package classes of the assignment. The
+ * benchmark therefore reaches {@code Deque} through {@code static final}
+ * method handles, which the JIT compiler turns into direct calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DequeBenchmark {
+    private static final Object ITEM = "item";
+    private static final MethodHandle NEW_DEQUE, ADD_FIRST, ADD_LAST, REMOVE_FIRST, REMOVE_LAST;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> deque;
+        MethodType add, remove;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            deque = Class.forName("Deque");
+            add = MethodType.methodType(void.class, Object.class);
+            remove = MethodType.methodType(Object.class);
+            NEW_DEQUE = lookup.findConstructor(deque, MethodType.methodType(void.class))
+                              .asType(MethodType.methodType(Object.class));
+            ADD_FIRST = lookup.findVirtual(deque, "addFirst", add)
+                              .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            ADD_LAST = lookup.findVirtual(deque, "addLast", add)
+                             .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            REMOVE_FIRST = lookup.findVirtual(deque, "removeFirst", remove)
+                                 .asType(MethodType.methodType(Object.class, Object.class));
+            REMOVE_LAST = lookup.findVirtual(deque, "removeLast", remove)
+                                .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"16", "100000"})
+    public int size;
+    
+    private Object deque;
+    
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        deque = (Object) NEW_DEQUE.invokeExact();
+        for (int i = 0; i < size; i++) {
+            ADD_LAST.invokeExact(deque, ITEM);
+        }
+    }
+    
+    @Benchmark
+    public Object addFirstRemoveFirst() throws Throwable {
+        ADD_FIRST.invokeExact(deque, ITEM);
+        return (Object) REMOVE_FIRST.invokeExact(deque);
+    }
+    
+    @Benchmark
+    public Object addFirstRemoveLast() throws Throwable {
+        ADD_FIRST.invokeExact(deque, ITEM);
+        return (Object) REMOVE_LAST.invokeExact(deque);
+    }
+    
+    @Benchmark
+    public Object addLastRemoveFirst() throws Throwable {
+        ADD_LAST.invokeExact(deque, ITEM);
+        return (Object) REMOVE_FIRST.invokeExact(deque);
+    }
+    
+    @Benchmark
+    public Object addLastRemoveLast() throws Throwable {
+        ADD_LAST.invokeExact(deque, ITEM);
+        return (Object) REMOVE_LAST.invokeExact(deque);
+    }
+    
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Object item : (Iterable<?>) deque) {
+            blackhole.consume(item);
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(DequeBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("deque-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+/******************************************************************************
+ *  Compilation:  javac-algs4 -cp jmh-core.jar:jmh-generator-annprocess.jar
+ *                            jmh/benchmarks/RandomizedQueueBenchmark.java
+ *  Execution:    java-algs4 -cp jmh-core.jar:. benchmarks.RandomizedQueueBenchmark
+ *
+ *  JMH benchmark of the RandomizedQueue data type.
+ * 
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code RandomizedQueueBenchmark} class measures the throughput of
+ * {@code enqueue}/{@code dequeue} pairs, of {@code sample}, and of iterating
+ * over a whole {@code RandomizedQueue} in random order.
+ * <p>
+ * The {@code RandomizedQueue} is filled with {@code size} items up front, so
+ * each enqueue/dequeue pair runs on a queue of steady size. As in
+ * {@code DequeBenchmark}, it is reached through method handles because it lives
+ * in the default package.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomizedQueueBenchmark {
+    private static final Object ITEM = "item";
+    private static final MethodHandle NEW_QUEUE, ENQUEUE, DEQUEUE, SAMPLE;
+    
+    static {
+        MethodHandles.Lookup lookup;
+        Class<?> randomizedQueue;
+        
+        try {
+            lookup = MethodHandles.publicLookup();
+            randomizedQueue = Class.forName("RandomizedQueue");
+            NEW_QUEUE = lookup.findConstructor(randomizedQueue, MethodType.methodType(void.class))
+                              .asType(MethodType.methodType(Object.class));
+            ENQUEUE = lookup.findVirtual(randomizedQueue, "enqueue", MethodType.methodType(void.class, Object.class))
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            DEQUEUE = lookup.findVirtual(randomizedQueue, "dequeue", MethodType.methodType(Object.class))
+                            .asType(MethodType.methodType(Object.class, Object.class));
+            SAMPLE = lookup.findVirtual(randomizedQueue, "sample", MethodType.methodType(Object.class))
+                           .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @Param({"16", "100000"})
+    public int size;
+    
+    private Object queue;
+    
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        queue = (Object) NEW_QUEUE.invokeExact();
+        for (int i = 0; i < size; i++) {
+            ENQUEUE.invokeExact(queue, ITEM);
+        }
+    }
+    
+    @Benchmark
+    public Object enqueueDequeue() throws Throwable {
+        ENQUEUE.invokeExact(queue, ITEM);
+        return (Object) DEQUEUE.invokeExact(queue);
+    }
+    
+    @Benchmark
+    public Object sample() throws Throwable {
+        return (Object) SAMPLE.invokeExact(queue);
+    }
+    
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Object item : (Iterable<?>) queue) {
+            blackhole.consume(item);
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options;
+        
+        options = new OptionsBuilder().include(RandomizedQueueBenchmark.class.getSimpleName())
+                                      .resultFormat(ResultFormatType.JSON)
+                                      .result("randomized-queue-jmh.json")
+                                      .build();
+        new Runner(options).run();
+    }
+}